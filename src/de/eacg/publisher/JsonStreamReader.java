@@ -0,0 +1,577 @@
+package de.eacg.ecs.publisher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull based JSON tokenizer, reads one token at a time without building a tree
+ */
+public class JsonStreamReader implements Closeable {
+    /**
+     * Token
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /**
+     * Scope constants
+     */
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    /**
+     * Input
+     */
+    private final Reader in;
+    /**
+     * Buffer
+     */
+    private final char[] buffer = new char[8192];
+    /**
+     * Buffer position
+     */
+    private int pos = 0;
+    /**
+     * Buffer limit
+     */
+    private int limit = 0;
+    /**
+     * Scope stack
+     */
+    private int[] stack = new int[32];
+    /**
+     * Scope stack depth
+     */
+    private int depth = 0;
+    /**
+     * Peeked token, null if none
+     */
+    private Token peeked;
+    /**
+     * Text of peeked name, string, number or boolean
+     */
+    private String peekedValue;
+    /**
+     * Skipping, strings are not materialized
+     */
+    private boolean skipping = false;
+    /**
+     * Scratch builder
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Peek next token
+     *
+     * @return token
+     * @throws IOException IOException
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int scope = stack[depth - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return peeked = readValue(nextNonWhitespace());
+            case NONEMPTY_DOCUMENT:
+                c = nextNonWhitespace();
+                if (c != -1) {
+                    throw syntaxError("Expected end of document");
+                }
+                return peeked = Token.END_DOCUMENT;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    depth--;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+                peekedValue = readString();
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return peeked = readValue(nextNonWhitespace());
+            case EMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    depth--;
+                    return peeked = Token.END_ARRAY;
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                return peeked = readValue(c);
+            default:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    depth--;
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                return peeked = readValue(nextNonWhitespace());
+        }
+    }
+
+    /**
+     * Has next element in current object or array
+     *
+     * @return boolean
+     * @throws IOException IOException
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Begin object
+     *
+     * @throws IOException IOException
+     */
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+    }
+
+    /**
+     * End object
+     *
+     * @throws IOException IOException
+     */
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+    }
+
+    /**
+     * Begin array
+     *
+     * @throws IOException IOException
+     */
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+    }
+
+    /**
+     * End array
+     *
+     * @throws IOException IOException
+     */
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+    }
+
+    /**
+     * Next name
+     *
+     * @return name
+     * @throws IOException IOException
+     */
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        return peekedValue;
+    }
+
+    /**
+     * Next string, numbers and booleans are returned as their literal text
+     *
+     * @return string
+     * @throws IOException IOException
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw syntaxError("Expected string but was " + token);
+        }
+        peeked = null;
+        return peekedValue;
+    }
+
+    /**
+     * Next string or null
+     *
+     * @return string or null
+     * @throws IOException IOException
+     */
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            peeked = null;
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * Next int
+     *
+     * @return int
+     * @throws IOException IOException
+     */
+    public int nextInt() throws IOException {
+        return (int) nextLong();
+    }
+
+    /**
+     * Next long
+     *
+     * @return long
+     * @throws IOException IOException
+     */
+    public long nextLong() throws IOException {
+        String value = nextString();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException e2) {
+                throw syntaxError("Expected number but was " + value);
+            }
+        }
+    }
+
+    /**
+     * Next double
+     *
+     * @return double
+     * @throws IOException IOException
+     */
+    public double nextDouble() throws IOException {
+        String value = nextString();
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected number but was " + value);
+        }
+    }
+
+    /**
+     * Next boolean
+     *
+     * @return boolean
+     * @throws IOException IOException
+     */
+    public boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        return "true".equals(peekedValue);
+    }
+
+    /**
+     * Next null
+     *
+     * @throws IOException IOException
+     */
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+    }
+
+    /**
+     * Skip next value including all nested values
+     *
+     * @throws IOException IOException
+     */
+    public void skipValue() throws IOException {
+        skipping = true;
+        try {
+            int count = 0;
+            do {
+                Token token = peek();
+                peeked = null;
+                if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                    count++;
+                } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                    count--;
+                } else if (token == Token.END_DOCUMENT) {
+                    return;
+                }
+            } while (count > 0);
+        } finally {
+            skipping = false;
+            peekedValue = null;
+        }
+    }
+
+    /**
+     * Close
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Consume expected token
+     *
+     * @param expected token
+     * @throws IOException IOException
+     */
+    private void consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    /**
+     * Read value starting with c
+     *
+     * @param c first char
+     * @return token
+     * @throws IOException IOException
+     */
+    private Token readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            case '"':
+                peekedValue = readString();
+                return Token.STRING;
+            case 't':
+            case 'f':
+            case 'n':
+                String literal = readLiteral(c);
+                if (literal.equals("null")) {
+                    return Token.NULL;
+                }
+                if (!literal.equals("true") && !literal.equals("false")) {
+                    throw syntaxError("Unexpected literal " + literal);
+                }
+                peekedValue = literal;
+                return Token.BOOLEAN;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    peekedValue = readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError(c == -1 ? "Unexpected end of document" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Read string after opening quote
+     *
+     * @return string, null while skipping
+     * @throws IOException IOException
+     */
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                pos++;
+            }
+            if (!skipping) {
+                text.append(buffer, start, pos - start);
+            }
+            if (pos == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return skipping ? null : text.toString();
+            }
+            char escaped = readEscape();
+            if (!skipping) {
+                text.append(escaped);
+            }
+        }
+    }
+
+    /**
+     * Read escape sequence after backslash
+     *
+     * @return char
+     * @throws IOException IOException
+     */
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            case -1:
+                throw syntaxError("Unterminated escape");
+            default:
+                return (char) c;
+        }
+    }
+
+    /**
+     * Read number starting with c
+     *
+     * @param c first char
+     * @return number text
+     * @throws IOException IOException
+     */
+    private String readNumber(int c) throws IOException {
+        text.setLength(0);
+        text.append((char) c);
+        while (true) {
+            if (pos == limit && !fill()) {
+                break;
+            }
+            char next = buffer[pos];
+            if ((next >= '0' && next <= '9') || next == '.' || next == 'e' || next == 'E' || next == '+' || next == '-') {
+                text.append(next);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Read literal starting with c
+     *
+     * @param c first char
+     * @return literal
+     * @throws IOException IOException
+     */
+    private String readLiteral(int c) throws IOException {
+        text.setLength(0);
+        text.append((char) c);
+        while (true) {
+            if (pos == limit && !fill()) {
+                break;
+            }
+            char next = buffer[pos];
+            if (next >= 'a' && next <= 'z') {
+                text.append(next);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Next non whitespace char
+     *
+     * @return char or -1 at end of input
+     * @throws IOException IOException
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != '\uFEFF') {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Read char
+     *
+     * @return char or -1 at end of input
+     * @throws IOException IOException
+     */
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Fill buffer
+     *
+     * @return false at end of input
+     * @throws IOException IOException
+     */
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        pos = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    /**
+     * Push scope
+     *
+     * @param scope scope
+     */
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Syntax error
+     *
+     * @param message message
+     * @return exception
+     */
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param in input
+     */
+    public JsonStreamReader(Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+}
@@ -1,8 +1,11 @@
 package de.eacg.ecs.publisher;
 
 import hudson.model.Run;
-import hudson.model.Action;
+import jenkins.model.RunAction2;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -12,11 +15,11 @@ import java.util.Map;
  * copyright EACG GmbH
  *
  */
-public class PublisherAction implements Action {
+public class PublisherAction implements RunAction2 {
     /**
      * Build
      */
-    private Run<?, ?> build;
+    private transient Run<?, ?> build;
     /**
      * Scans
      */
@@ -79,6 +82,70 @@ public class PublisherAction implements Action {
         return build;
     }
 
+    /**
+     * Get raw scan result, loaded from the scan store on demand
+     *
+     * @param scanId scanId
+     * @return result or null if not stored or unreadable
+     */
+    public JSONObject getRawResult(String scanId) {
+        try {
+            return new PublisherScanStore(getBuild().getRootDir()).read(scanId);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * On attached
+     *
+     * @param run build
+     */
+    @Override
+    public void onAttached(Run<?, ?> run) {
+        this.build = run;
+    }
+
+    /**
+     * On load, moves raw results kept in build.xml by older versions to the scan store
+     *
+     * @param run build
+     */
+    @Override
+    public void onLoad(Run<?, ?> run) {
+        this.build = run;
+        if (scans == null) {
+            return;
+        }
+        PublisherScanStore store = new PublisherScanStore(run.getRootDir());
+        boolean migrated = false;
+        for (PublisherScan scan : scans.values()) {
+            JSONObject legacyResult = scan.takeLegacyResult();
+            if (legacyResult == null) {
+                continue;
+            }
+            try {
+                if (!store.has(scan.getScanId())) {
+                    store.write(scan.getScanId(), legacyResult);
+                }
+                migrated = true;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (migrated) {
+            try {
+                run.save();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Constructor
      *
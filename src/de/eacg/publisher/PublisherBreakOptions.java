@@ -5,7 +5,10 @@ import hudson.model.AbstractDescribableImpl;
 import hudson.model.Descriptor;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import hudson.util.FormValidation;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
 
 /**
  * Class to save break options.
@@ -43,6 +46,14 @@ public class PublisherBreakOptions extends AbstractDescribableImpl<PublisherBrea
      * Break on viability issues value
      */
     private final String breakOnViabilityIssuesValue;
+    /**
+     * Threshold rules, one per line, e.g. "legal.violations > 5" or "vulnerability.issues > 10%"
+     */
+    private String breakRules;
+    /**
+     * Compiled policy
+     */
+    private transient volatile PublisherBreakPolicy policy;
 
     /**
      * all constant
@@ -107,6 +118,41 @@ public class PublisherBreakOptions extends AbstractDescribableImpl<PublisherBrea
         this.breakOnViabilityIssuesValue = all;
     }
 
+    /**
+     * Set optional threshold rules.
+     *
+     * @param breakRules breakRules
+     */
+    @DataBoundSetter
+    public void setBreakRules(String breakRules) {
+        this.breakRules = breakRules;
+        this.policy = null;
+    }
+
+    /**
+     * Get threshold rules
+     *
+     * @return breakRules
+     */
+    public String getBreakRules() {
+        return breakRules;
+    }
+
+    /**
+     * Get policy, compiled on first use
+     *
+     * @return policy
+     * @throws IllegalArgumentException if a break rule is invalid
+     */
+    public PublisherBreakPolicy getPolicy() {
+        PublisherBreakPolicy aPolicy = policy;
+        if (aPolicy == null) {
+            aPolicy = PublisherBreakPolicy.compile(this);
+            policy = aPolicy;
+        }
+        return aPolicy;
+    }
+
     /**
      * is allow break build
      *
@@ -275,6 +321,7 @@ public class PublisherBreakOptions extends AbstractDescribableImpl<PublisherBrea
                 .append(breakOnLegalIssuesValue, publisherBreakOptions.breakOnLegalIssuesValue)
                 .append(breakOnViabilityIssues, publisherBreakOptions.breakOnViabilityIssues)
                 .append(breakOnViabilityIssuesValue, publisherBreakOptions.breakOnViabilityIssuesValue)
+                .append(breakRules, publisherBreakOptions.breakRules)
                 .isEquals();
     }
 
@@ -293,6 +340,7 @@ public class PublisherBreakOptions extends AbstractDescribableImpl<PublisherBrea
                 .append(breakOnLegalIssuesValue)
                 .append(breakOnViabilityIssues)
                 .append(breakOnViabilityIssuesValue)
+                .append(breakRules)
                 .toHashCode();
     }
 
@@ -301,6 +349,23 @@ public class PublisherBreakOptions extends AbstractDescribableImpl<PublisherBrea
      */
     @Extension
     public static class DescriptorImpl extends Descriptor<PublisherBreakOptions> {
+        /**
+         * Check break rules
+         *
+         * @param breakRules breakRules
+         * @return FormValidation
+         */
+        public FormValidation doCheckBreakRules(@QueryParameter String breakRules) {
+            try {
+                for (String expression : PublisherBreakPolicy.splitRules(breakRules)) {
+                    PublisherBreakRule.parse(expression);
+                }
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
+            return FormValidation.ok();
+        }
+
         /**
          * Get display name
          *
@@ -0,0 +1,142 @@
+package de.eacg.ecs.publisher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Break build policy compiled once from PublisherBreakOptions
+ */
+public final class PublisherBreakPolicy {
+    /**
+     * Empty policy constant
+     */
+    public static final PublisherBreakPolicy EMPTY = new PublisherBreakPolicy(new PublisherBreakRule[0]);
+    /**
+     * Rules
+     */
+    private final PublisherBreakRule[] rules;
+
+    /**
+     * Compile break options
+     *
+     * @param options options
+     * @return policy
+     * @throws IllegalArgumentException if a break rule is invalid
+     */
+    public static PublisherBreakPolicy compile(PublisherBreakOptions options) {
+        if (!Boolean.TRUE.equals(options.isAllowBreakBuild())) {
+            return EMPTY;
+        }
+        List<PublisherBreakRule> rules = new ArrayList<PublisherBreakRule>();
+        if (Boolean.TRUE.equals(options.isBreakOnVulnerabilities())) {
+            if (options.isBreakOnVulnerabilitiesWarningsAndCritical()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.VULNERABILITY, PublisherBreakRule.Metric.ISSUES, false, 0, null));
+            } else if (options.isBreakOnVulnerabilitiesCriticalHitsOnly()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.VULNERABILITY, PublisherBreakRule.Metric.VIOLATIONS, false, 0, null));
+            }
+        }
+        if (Boolean.TRUE.equals(options.isBreakOnLegalIssues())) {
+            if (options.isBreakOnLegalIssuesWarningAndViolations()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.LEGAL, PublisherBreakRule.Metric.ISSUES, false, 0, null));
+            } else if (options.isBreakOnLegalIssuesViolationsOnly()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.LEGAL, PublisherBreakRule.Metric.VIOLATIONS, false, 0, null));
+            }
+        }
+        if (Boolean.TRUE.equals(options.isBreakOnViabilityIssues())) {
+            if (options.isBreakOnViabilityIssuesAll()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.VIABILITY, PublisherBreakRule.Metric.ISSUES, false, 0, null));
+            } else if (options.isBreakOnViabilityIssuesStrongMismatchesOnly()) {
+                rules.add(new PublisherBreakRule(PublisherBreakRule.Category.VIABILITY, PublisherBreakRule.Metric.VIOLATIONS, false, 0, null));
+            }
+        }
+        for (String expression : splitRules(options.getBreakRules())) {
+            rules.add(PublisherBreakRule.parse(expression));
+        }
+        return rules.isEmpty() ? EMPTY : new PublisherBreakPolicy(rules.toArray(new PublisherBreakRule[rules.size()]));
+    }
+
+    /**
+     * Split rule expressions separated by new lines or semicolons
+     *
+     * @param breakRules breakRules
+     * @return expressions
+     */
+    static List<String> splitRules(String breakRules) {
+        List<String> expressions = new ArrayList<String>();
+        if (breakRules == null) {
+            return expressions;
+        }
+        for (String expression : breakRules.split("[;\\n]")) {
+            if (expression.trim().length() > 0) {
+                expressions.add(expression);
+            }
+        }
+        return expressions;
+    }
+
+    /**
+     * Is empty
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    /**
+     * Is any rule violated by statistics
+     *
+     * @param statistics statistics
+     * @return boolean
+     */
+    public boolean isViolated(PublisherScanStatistics statistics) {
+        for (PublisherBreakRule rule : rules) {
+            if (rule.isViolated(statistics)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluate scans, reporting every violated rule
+     *
+     * @param scans scans
+     * @return messages, empty if no rule is violated
+     */
+    public List<String> evaluate(Collection<PublisherScan> scans) {
+        List<String> messages = new ArrayList<String>();
+        for (PublisherScan scan : scans) {
+            PublisherScanStatistics statistics = scan.getScanStatistics();
+            if (statistics == null || !isViolated(statistics)) {
+                continue;
+            }
+            String name = scan.getModuleName() != null ? scan.getModuleName() : scan.getScanId();
+            for (PublisherBreakRule rule : rules) {
+                if (rule.isViolated(statistics)) {
+                    messages.add("[" + name + "] " + rule.getMessage(statistics));
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Get rules
+     *
+     * @return rules
+     */
+    public PublisherBreakRule[] getRules() {
+        return rules.clone();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param rules rules
+     */
+    private PublisherBreakPolicy(PublisherBreakRule[] rules) {
+        this.rules = rules;
+    }
+}
@@ -0,0 +1,216 @@
+package de.eacg.ecs.publisher;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable threshold rule, violated when a scan metric exceeds its limit
+ */
+public final class PublisherBreakRule {
+    /**
+     * Category
+     */
+    public enum Category {
+        VULNERABILITY, LEGAL, VIABILITY
+    }
+
+    /**
+     * Metric
+     */
+    public enum Metric {
+        VIOLATIONS, WARNINGS, ISSUES
+    }
+
+    /**
+     * Rule expression pattern constant, e.g. "legal.violations > 5" or "vulnerability.issues > 10%"
+     */
+    private static final Pattern RULE_PATTERN = Pattern.compile(
+            "^\\s*(vulnerability|legal|viability)\\.(violations|warnings|issues)\\s*>\\s*([0-9]+(?:\\.[0-9]+)?)\\s*(%?)\\s*$",
+            Pattern.CASE_INSENSITIVE);
+    /**
+     * Category
+     */
+    private final Category category;
+    /**
+     * Metric
+     */
+    private final Metric metric;
+    /**
+     * Limit is a ratio of components or licenses instead of a count
+     */
+    private final boolean percent;
+    /**
+     * Limit, exclusive
+     */
+    private final double limit;
+    /**
+     * Expression the rule was parsed from, null for rules from break options
+     */
+    private final String expression;
+
+    /**
+     * Parse rule expression
+     *
+     * @param expression expression
+     * @return rule
+     * @throws IllegalArgumentException if expression is invalid
+     */
+    public static PublisherBreakRule parse(String expression) {
+        Matcher matcher = RULE_PATTERN.matcher(expression);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid break rule: " + expression.trim());
+        }
+        boolean percent = matcher.group(4).length() > 0;
+        double limit = Double.parseDouble(matcher.group(3));
+        return new PublisherBreakRule(
+                Category.valueOf(matcher.group(1).toUpperCase(Locale.ENGLISH)),
+                Metric.valueOf(matcher.group(2).toUpperCase(Locale.ENGLISH)),
+                percent, percent ? limit / 100 : limit, expression.trim());
+    }
+
+    /**
+     * Get violations of category
+     *
+     * @param statistics statistics
+     * @return count
+     */
+    private int getViolations(PublisherScanStatistics statistics) {
+        switch (category) {
+            case VULNERABILITY:
+                return statistics.getVulnerabilityViolations();
+            case LEGAL:
+                return statistics.getLegalViolations();
+            default:
+                return statistics.getViabilityViolations();
+        }
+    }
+
+    /**
+     * Get warnings of category
+     *
+     * @param statistics statistics
+     * @return count
+     */
+    private int getWarnings(PublisherScanStatistics statistics) {
+        switch (category) {
+            case VULNERABILITY:
+                return statistics.getVulnerabilityWarnings();
+            case LEGAL:
+                return statistics.getLegalWarnings();
+            default:
+                return statistics.getViabilityWarnings();
+        }
+    }
+
+    /**
+     * Get metric value
+     *
+     * @param statistics statistics
+     * @return count or ratio
+     */
+    public double getValue(PublisherScanStatistics statistics) {
+        int count;
+        switch (metric) {
+            case VIOLATIONS:
+                count = getViolations(statistics);
+                break;
+            case WARNINGS:
+                count = getWarnings(statistics);
+                break;
+            default:
+                count = getViolations(statistics) + getWarnings(statistics);
+        }
+        if (!percent) {
+            return count;
+        }
+        int base = category == Category.LEGAL ? statistics.getLicenses() : statistics.getComponents();
+        return base == 0 ? 0 : (double) count / base;
+    }
+
+    /**
+     * Is violated
+     *
+     * @param statistics statistics
+     * @return boolean
+     */
+    public boolean isViolated(PublisherScanStatistics statistics) {
+        return getValue(statistics) > limit;
+    }
+
+    /**
+     * Get message for violated rule
+     *
+     * @param statistics statistics
+     * @return message
+     */
+    public String getMessage(PublisherScanStatistics statistics) {
+        int violations = getViolations(statistics);
+        int warnings = getWarnings(statistics);
+        String message;
+        switch (category) {
+            case VULNERABILITY:
+                message = Messages.PublisherStepExecution_vulnerabilities(violations, warnings);
+                break;
+            case LEGAL:
+                message = Messages.PublisherStepExecution_legal(violations, warnings);
+                break;
+            default:
+                message = Messages.PublisherStepExecution_viability(violations, warnings);
+        }
+        return expression == null ? message : message + " (" + expression + ")";
+    }
+
+    /**
+     * Get category
+     *
+     * @return category
+     */
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Get metric
+     *
+     * @return metric
+     */
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Is percent
+     *
+     * @return boolean
+     */
+    public boolean isPercent() {
+        return percent;
+    }
+
+    /**
+     * Get limit
+     *
+     * @return limit
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param category   category
+     * @param metric     metric
+     * @param percent    percent
+     * @param limit      limit, exclusive
+     * @param expression expression or null
+     */
+    PublisherBreakRule(Category category, Metric metric, boolean percent, double limit, String expression) {
+        this.category = category;
+        this.metric = metric;
+        this.percent = percent;
+        this.limit = limit;
+        this.expression = expression;
+    }
+}
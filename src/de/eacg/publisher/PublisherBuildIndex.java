@@ -0,0 +1,311 @@
+package de.eacg.ecs.publisher;
+
+import hudson.XmlFile;
+import hudson.model.Job;
+import hudson.model.Run;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent per-project index of builds which have an ECS analysis, with their summary statistics.
+ * Updated when a PublisherAction is attached, so the last analysis can be found without loading build records.
+ */
+public class PublisherBuildIndex {
+    /**
+     * File name constant, relative to job directory
+     */
+    public static final String FILE_NAME = "ecs-build-index.xml";
+    /**
+     * Loaded indexes by job directory
+     */
+    private static final Map<File, PublisherBuildIndex> indexes = new HashMap<File, PublisherBuildIndex>();
+    /**
+     * File
+     */
+    private final XmlFile file;
+    /**
+     * Entries by build number
+     */
+    private final TreeMap<Integer, Entry> entries;
+    /**
+     * Initialized, false until loaded from file or rebuilt from build history
+     */
+    private boolean initialized;
+
+    /**
+     * Get index of job
+     *
+     * @param job job
+     * @return index
+     */
+    public static PublisherBuildIndex get(Job<?, ?> job) {
+        File rootDir = job.getRootDir();
+        synchronized (indexes) {
+            PublisherBuildIndex index = indexes.get(rootDir);
+            if (index == null) {
+                index = new PublisherBuildIndex(new XmlFile(new File(rootDir, FILE_NAME)));
+                indexes.put(rootDir, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Get index of job, rebuilt from build history if the job has no index file yet
+     *
+     * @param job job
+     * @return index
+     */
+    public static PublisherBuildIndex getInitialized(Job<?, ?> job) {
+        PublisherBuildIndex index = get(job);
+        synchronized (index) {
+            if (!index.isInitialized()) {
+                index.rebuild(job.getBuilds());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Remove deleted build from the index of its job, jobs without index are left alone
+     *
+     * @param build build
+     */
+    static void removeBuild(Run<?, ?> build) {
+        File rootDir = build.getParent().getRootDir();
+        synchronized (indexes) {
+            if (!indexes.containsKey(rootDir) && !new File(rootDir, FILE_NAME).isFile()) {
+                return;
+            }
+        }
+        get(build.getParent()).remove(build.getNumber());
+    }
+
+    /**
+     * Forget loaded indexes of a job directory and of job directories which no longer exist
+     *
+     * @param rootDir job directory
+     */
+    static void evict(File rootDir) {
+        synchronized (indexes) {
+            indexes.remove(rootDir);
+            for (Iterator<File> iterator = indexes.keySet().iterator(); iterator.hasNext(); ) {
+                if (!iterator.next().isDirectory()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sum statistics of scans
+     *
+     * @param scans scans
+     * @return statistics or null if no scan has a result
+     */
+    static PublisherScanStatistics sum(Map<String, PublisherScan> scans) {
+        int components = 0, licenses = 0, vulnerabilityViolations = 0, vulnerabilityWarnings = 0,
+                legalViolations = 0, legalWarnings = 0, viabilityViolations = 0, viabilityWarnings = 0;
+        boolean results = false;
+        for (PublisherScan scan : scans.values()) {
+            PublisherScanStatistics statistics = scan.getScanStatistics();
+            if (statistics == null) {
+                continue;
+            }
+            results = true;
+            components += statistics.getComponents();
+            licenses += statistics.getLicenses();
+            vulnerabilityViolations += statistics.getVulnerabilityViolations();
+            vulnerabilityWarnings += statistics.getVulnerabilityWarnings();
+            legalViolations += statistics.getLegalViolations();
+            legalWarnings += statistics.getLegalWarnings();
+            viabilityViolations += statistics.getViabilityViolations();
+            viabilityWarnings += statistics.getViabilityWarnings();
+        }
+        if (!results) {
+            return null;
+        }
+        return new PublisherScanStatistics(components, licenses, vulnerabilityViolations, vulnerabilityWarnings,
+                legalViolations, legalWarnings, viabilityViolations, viabilityWarnings);
+    }
+
+    /**
+     * Is initialized
+     *
+     * @return boolean
+     */
+    public synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Add build
+     *
+     * @param number build number
+     * @param scans  scans
+     */
+    public synchronized void add(int number, Map<String, PublisherScan> scans) {
+        entries.put(number, new Entry(number, scans.size(), sum(scans)));
+        if (initialized) {
+            save();
+        }
+    }
+
+    /**
+     * Remove build
+     *
+     * @param number build number
+     */
+    public synchronized void remove(int number) {
+        if (entries.remove(number) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Get last entry
+     *
+     * @return entry or null
+     */
+    public synchronized Entry getLast() {
+        Map.Entry<Integer, Entry> last = entries.lastEntry();
+        return last != null ? last.getValue() : null;
+    }
+
+    /**
+     * Get indexed build numbers
+     *
+     * @return build numbers in ascending order
+     */
+    public synchronized int[] getNumbers() {
+        int[] numbers = new int[entries.size()];
+        int i = 0;
+        for (Integer number : entries.keySet()) {
+            numbers[i++] = number;
+        }
+        return numbers;
+    }
+
+    /**
+     * Get entry
+     *
+     * @param number build number
+     * @return entry or null
+     */
+    public synchronized Entry getEntry(int number) {
+        return entries.get(number);
+    }
+
+    /**
+     * Rebuild index from build history, used once for jobs without index file
+     *
+     * @param builds builds
+     */
+    public synchronized void rebuild(List<? extends Run<?, ?>> builds) {
+        for (Run<?, ?> build : builds) {
+            PublisherAction action = build.getAction(PublisherAction.class);
+            if (action != null && action.getScans() != null && !entries.containsKey(build.getNumber())) {
+                entries.put(build.getNumber(), new Entry(build.getNumber(), action.getScans().size(), sum(action.getScans())));
+            }
+        }
+        initialized = true;
+        save();
+    }
+
+    /**
+     * Save index
+     */
+    private void save() {
+        try {
+            file.write(entries);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Indexed build
+     */
+    public static final class Entry {
+        /**
+         * Build number
+         */
+        private final int number;
+        /**
+         * Scans count
+         */
+        private final int scans;
+        /**
+         * Summed statistics, null if no scan had a result
+         */
+        private final PublisherScanStatistics statistics;
+
+        /**
+         * Get build number
+         *
+         * @return build number
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        /**
+         * Get scans count
+         *
+         * @return count
+         */
+        public int getScans() {
+            return scans;
+        }
+
+        /**
+         * Get summed statistics
+         *
+         * @return statistics or null if no scan had a result
+         */
+        public PublisherScanStatistics getStatistics() {
+            return statistics;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param number     build number
+         * @param scans      scans count
+         * @param statistics statistics
+         */
+        Entry(int number, int scans, PublisherScanStatistics statistics) {
+            this.number = number;
+            this.scans = scans;
+            this.statistics = statistics;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param file file
+     */
+    @SuppressWarnings("unchecked")
+    private PublisherBuildIndex(XmlFile file) {
+        this.file = file;
+        TreeMap<Integer, Entry> loaded = null;
+        if (file.exists()) {
+            try {
+                loaded = (TreeMap<Integer, Entry>) file.read();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (ClassCastException e) {
+                e.printStackTrace();
+            }
+        }
+        this.entries = loaded != null ? loaded : new TreeMap<Integer, Entry>();
+        this.initialized = loaded != null;
+    }
+}
@@ -155,7 +155,7 @@ public class PublisherCredentials extends AbstractDescribableImpl<PublisherCrede
          */
         public FormValidation doCheckApiToken(@QueryParameter String apiToken, @QueryParameter String userName, @QueryParameter String baseUrl) {
             if (!apiToken.isEmpty() && !userName.isEmpty()) {
-                RestClient client = new RestClient(new PublisherCredentials(apiToken, userName, baseUrl));
+                RestClient client = new RestClient(new PublisherCredentials(apiToken, userName, baseUrl), null, RestClientPool.getShared());
                 if (!client.isAuthorized()) {
                     return FormValidation.error("API token is wrong!");
                 }
@@ -0,0 +1,347 @@
+package de.eacg.ecs.publisher;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Runs on the agent and collects everything plugin discovery needs in one round-trip:
+ * the modules with plugin manifests, which manifest files exist and a fingerprint of every plugin executable.
+ * In recursive mode the workspace is walked once, skipping ignored directories like node_modules and vendor.
+ */
+public class PublisherDiscovery extends MasterToSlaveFileCallable<PublisherDiscovery.Result> {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Files to check, relative to workspace
+     */
+    private final List<String> files;
+    /**
+     * Commands to fingerprint
+     */
+    private final List<String> commands;
+    /**
+     * PATH of the build environment, may be null
+     */
+    private final String path;
+    /**
+     * Manifest index, null to skip module detection
+     */
+    private final PublisherManifestIndex index;
+    /**
+     * Commands by plugin name, fingerprinted for every module the plugin is detected in
+     */
+    private final Map<String, String> pluginCommands;
+    /**
+     * Walk the whole workspace instead of its root only
+     */
+    private final boolean recursive;
+    /**
+     * Directory names never walked into
+     */
+    private final Set<String> ignored;
+
+    /**
+     * Invoke on agent
+     *
+     * @param workspace workspace
+     * @param channel   channel
+     * @return result
+     * @throws IOException IOException
+     */
+    @Override
+    public Result invoke(final File workspace, VirtualChannel channel) throws IOException {
+        final Result result = new Result();
+        if (index != null && recursive) {
+            final Path root = workspace.toPath();
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.equals(root) || !ignored.contains(dir.getFileName().toString()) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        Path parent = root.relativize(file.getParent());
+                        match(workspace, parent.toString().replace(File.separatorChar, '/'), file.getFileName().toString(), result);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } else if (index != null) {
+            String[] names = workspace.list();
+            if (names != null) {
+                for (String name : names) {
+                    if (new File(workspace, name).isFile()) {
+                        match(workspace, "", name, result);
+                    }
+                }
+            }
+        }
+        for (String file : files) {
+            if (file == null) {
+                continue;
+            }
+            result.checked.add(file);
+            if (new File(workspace, file).exists()) {
+                result.existing.add(file);
+            }
+        }
+        for (String command : commands) {
+            fingerprint(workspace, command, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get command path relative to workspace, commands found on PATH are kept as they are
+     *
+     * @param module  module directory, relative to workspace, empty for the workspace root
+     * @param command command, relative to module
+     * @return path
+     */
+    public static String getCommandPath(String module, String command) {
+        if (module == null || module.isEmpty() || command == null || command.indexOf('/') < 0 || new File(command).isAbsolute()) {
+            return command;
+        }
+        return module + "/" + command;
+    }
+
+    /**
+     * Get commands to try for a plugin of a module, relative to module: the module's own command,
+     * the same command of the workspace root, as hoisted by yarn or lerna workspaces, and the
+     * executable name on PATH
+     *
+     * @param module  module directory, relative to workspace, empty for the workspace root
+     * @param command command, relative to module
+     * @return commands in the order to try
+     */
+    public static List<String> getCommandCandidates(String module, String command) {
+        Set<String> candidates = new LinkedHashSet<String>();
+        candidates.add(command);
+        if (command != null && command.indexOf('/') >= 0 && !new File(command).isAbsolute()) {
+            if (module != null && !module.isEmpty()) {
+                StringBuilder root = new StringBuilder();
+                for (int i = module.split("/").length; i > 0; i--) {
+                    root.append("../");
+                }
+                candidates.add(root.append(command).toString());
+            }
+            candidates.add(command.substring(command.lastIndexOf('/') + 1));
+        }
+        return new ArrayList<String>(candidates);
+    }
+
+    /**
+     * Record plugins whose manifest matches file name
+     *
+     * @param workspace workspace
+     * @param module    module directory, relative to workspace
+     * @param fileName  file name
+     * @param result    result
+     */
+    private void match(File workspace, String module, String fileName, Result result) {
+        for (String plugin : index.match(fileName)) {
+            TreeMap<String, String> found = result.modules.get(module);
+            if (found == null) {
+                found = new TreeMap<String, String>();
+                result.modules.put(module, found);
+            }
+            if (found.containsKey(plugin)) {
+                continue;
+            }
+            found.put(plugin, fileName);
+            for (String candidate : getCommandCandidates(module, pluginCommands.get(plugin))) {
+                String command = getCommandPath(module, candidate);
+                if (command != null && !result.fingerprints.containsKey(command)) {
+                    try {
+                        fingerprint(workspace, command, result);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Record fingerprint of command
+     *
+     * @param workspace workspace
+     * @param command   command
+     * @param result    result
+     * @throws IOException IOException
+     */
+    private void fingerprint(File workspace, String command, Result result) throws IOException {
+        File executable = resolve(workspace, command);
+        if (executable != null) {
+            result.fingerprints.put(command, executable.getCanonicalPath() + "|" + executable.lastModified() + "|" + executable.length());
+        }
+    }
+
+    /**
+     * Resolve command like the shell would, relative to workspace or on PATH
+     *
+     * @param workspace workspace
+     * @param command   command
+     * @return executable or null
+     */
+    private File resolve(File workspace, String command) {
+        if (command == null || command.trim().isEmpty()) {
+            return null;
+        }
+        command = command.trim();
+        if (command.indexOf('/') >= 0 || command.indexOf(File.separatorChar) >= 0) {
+            File file = new File(command);
+            if (!file.isAbsolute()) {
+                file = new File(workspace, command);
+            }
+            return file.isFile() ? file : null;
+        }
+        if (path == null) {
+            return null;
+        }
+        for (String directory : path.split(File.pathSeparator)) {
+            File file = new File(directory, command);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Discovery result
+     */
+    public static final class Result implements Serializable {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Manifest file name by plugin name, by module directory relative to workspace
+         */
+        private final TreeMap<String, TreeMap<String, String>> modules = new TreeMap<String, TreeMap<String, String>>();
+        /**
+         * Checked files
+         */
+        private final HashSet<String> checked = new HashSet<String>();
+        /**
+         * Existing files
+         */
+        private final HashSet<String> existing = new HashSet<String>();
+        /**
+         * Executable fingerprints, path, mtime and size, by command
+         */
+        private final HashMap<String, String> fingerprints = new HashMap<String, String>();
+
+        /**
+         * Get modules with plugin manifests
+         *
+         * @return manifest file name by plugin name, by module directory, "" for the workspace root
+         */
+        public Map<String, ? extends Map<String, String>> getModules() {
+            return modules;
+        }
+
+        /**
+         * Does file exist
+         *
+         * @param file file
+         * @return boolean
+         */
+        public boolean exists(String file) {
+            return existing.contains(file);
+        }
+
+        /**
+         * Was file checked
+         *
+         * @param file file
+         * @return boolean
+         */
+        public boolean isChecked(String file) {
+            return checked.contains(file);
+        }
+
+        /**
+         * Get existing files
+         *
+         * @return files
+         */
+        public Set<String> getExisting() {
+            return existing;
+        }
+
+        /**
+         * Get fingerprint of command
+         *
+         * @param command command
+         * @return fingerprint or null if command could not be resolved
+         */
+        public String getFingerprint(String command) {
+            return fingerprints.get(command);
+        }
+
+        /**
+         * Get fingerprints
+         *
+         * @return fingerprints by command
+         */
+        public Map<String, String> getFingerprints() {
+            return fingerprints;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param files    files to check, relative to workspace
+     * @param commands commands to fingerprint
+     * @param path     PATH of the build environment
+     */
+    PublisherDiscovery(List<String> files, List<String> commands, String path) {
+        this(files, commands, path, null, Collections.<String, String>emptyMap(), false, Collections.<String>emptySet());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param files          files to check, relative to workspace
+     * @param commands       commands to fingerprint
+     * @param path           PATH of the build environment
+     * @param index          manifest index
+     * @param pluginCommands commands by plugin name
+     * @param recursive      walk the whole workspace
+     * @param ignored        directory names never walked into
+     */
+    PublisherDiscovery(List<String> files, List<String> commands, String path, PublisherManifestIndex index,
+                       Map<String, String> pluginCommands, boolean recursive, Set<String> ignored) {
+        this.files = files;
+        this.commands = commands;
+        this.path = path;
+        this.index = index;
+        this.pluginCommands = new HashMap<String, String>(pluginCommands);
+        this.recursive = recursive;
+        this.ignored = new HashSet<String>(ignored);
+    }
+}
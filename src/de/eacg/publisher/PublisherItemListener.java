@@ -0,0 +1,45 @@
+package de.eacg.ecs.publisher;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+
+/**
+ * Drops per-job data loaded from a job directory when the job is deleted, renamed or moved, so
+ * a job recreated under the same name doesn't see the old data and gone jobs don't stay in memory
+ */
+@Extension
+public class PublisherItemListener extends ItemListener {
+    /**
+     * Evict data of the deleted job
+     *
+     * @param item item
+     */
+    @Override
+    public void onDeleted(Item item) {
+        evict(item);
+    }
+
+    /**
+     * Evict data loaded from the old location
+     *
+     * @param item        item
+     * @param oldFullName old full name
+     * @param newFullName new full name
+     */
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        evict(item);
+    }
+
+    /**
+     * Evict data of the item's directory and of directories which no longer exist
+     *
+     * @param item item
+     */
+    private static void evict(Item item) {
+        PublisherBuildIndex.evict(item.getRootDir());
+        PublisherTrendStore.evict(item.getRootDir());
+        PublisherScanCache.evict(item.getRootDir());
+    }
+}
@@ -0,0 +1,147 @@
+package de.eacg.ecs.publisher;
+
+import java.io.Serializable;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of plugin manifest globs, by exact file name and by extension, so matching a file name
+ * does not depend on the number of plugins. Serializable to match files on the agent.
+ */
+public final class PublisherManifestIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Plugin names by exact manifest name
+     */
+    private final HashMap<String, List<String>> byName = new HashMap<String, List<String>>();
+    /**
+     * Plugin names by manifest extension, from globs like "*.csproj"
+     */
+    private final HashMap<String, List<String>> byExtension = new HashMap<String, List<String>>();
+    /**
+     * Plugin names by any other manifest glob
+     */
+    private final LinkedHashMap<String, List<String>> byGlob = new LinkedHashMap<String, List<String>>();
+    /**
+     * Compiled globs, created on first use
+     */
+    private transient volatile Map<PathMatcher, List<String>> matchers;
+
+    /**
+     * Get plugin names whose manifest globs match file name
+     *
+     * @param fileName file name, without directories
+     * @return plugin names
+     */
+    public List<String> match(String fileName) {
+        List<String> named = byName.get(fileName);
+        int dot = fileName.lastIndexOf('.');
+        List<String> extended = dot >= 0 ? byExtension.get(fileName.substring(dot)) : null;
+        if (byGlob.isEmpty() && extended == null) {
+            return named != null ? named : Collections.<String>emptyList();
+        }
+        List<String> matches = new ArrayList<String>();
+        if (named != null) {
+            matches.addAll(named);
+        }
+        if (extended != null) {
+            matches.addAll(extended);
+        }
+        for (Map.Entry<PathMatcher, List<String>> entry : getMatchers().entrySet()) {
+            if (entry.getKey().matches(Paths.get(fileName))) {
+                for (String name : entry.getValue()) {
+                    if (!matches.contains(name)) {
+                        matches.add(name);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Get exact manifest names
+     *
+     * @return names
+     */
+    public Collection<String> getNames() {
+        return byName.keySet();
+    }
+
+    /**
+     * Get compiled globs
+     *
+     * @return matchers
+     */
+    private Map<PathMatcher, List<String>> getMatchers() {
+        Map<PathMatcher, List<String>> aMatchers = matchers;
+        if (aMatchers == null) {
+            aMatchers = new LinkedHashMap<PathMatcher, List<String>>();
+            for (Map.Entry<String, List<String>> entry : byGlob.entrySet()) {
+                aMatchers.put(FileSystems.getDefault().getPathMatcher("glob:" + entry.getKey()), entry.getValue());
+            }
+            matchers = aMatchers;
+        }
+        return aMatchers;
+    }
+
+    /**
+     * Is glob a plain file name
+     *
+     * @param glob glob
+     * @return boolean
+     */
+    private static boolean isLiteral(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            if ("*?[{\\/".indexOf(glob.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add to index
+     *
+     * @param index index
+     * @param key   key
+     * @param name  plugin name
+     */
+    private static void index(Map<String, List<String>> index, String key, String name) {
+        List<String> list = index.get(key);
+        if (list == null) {
+            list = new ArrayList<String>(1);
+            index.put(key, list);
+        }
+        if (!list.contains(name)) {
+            list.add(name);
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param descriptors descriptors
+     */
+    PublisherManifestIndex(Collection<PublisherPluginDescriptor> descriptors) {
+        for (PublisherPluginDescriptor descriptor : descriptors) {
+            for (String glob : descriptor.getManifests()) {
+                if (isLiteral(glob)) {
+                    index(byName, glob, descriptor.getName());
+                } else if (glob.startsWith("*.") && isLiteral(glob.substring(1))) {
+                    index(byExtension, glob.substring(1), descriptor.getName());
+                } else {
+                    index(byGlob, glob, descriptor.getName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package de.eacg.ecs.publisher;
+
+import hudson.ExtensionPoint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+
+/**
+ * Descriptor of a supported scanner plugin. Further scanners can be contributed
+ * by other Jenkins plugins as {@code @Extension} subclasses, overriding the hooks below where
+ * the scanner differs from the defaults.
+ */
+public class PublisherPluginDescriptor implements ExtensionPoint, PublisherScanIdStream.Parser {
+    /**
+     * Name, as printed by the version probe
+     */
+    private final String name;
+    /**
+     * Supported versions
+     */
+    private final PublisherVersionRange versions;
+    /**
+     * Manifest file globs, matched against file names in the workspace root
+     */
+    private final List<String> manifests;
+    /**
+     * Lock files, relative to workspace
+     */
+    private final List<String> locks;
+    /**
+     * Command
+     */
+    private final String command;
+    /**
+     * Args format, filled with api token, user name, url and project
+     */
+    private final String args;
+    /**
+     * Can run concurrently with other scanners
+     */
+    private final boolean parallelSafe;
+
+    /**
+     * Get name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get supported versions
+     *
+     * @return range
+     */
+    public PublisherVersionRange getVersions() {
+        return versions;
+    }
+
+    /**
+     * Get manifest file globs
+     *
+     * @return globs, empty if plugin is never auto detected
+     */
+    public List<String> getManifests() {
+        return manifests;
+    }
+
+    /**
+     * Get first manifest glob
+     *
+     * @return glob or null
+     */
+    public String getFile() {
+        return manifests.isEmpty() ? null : manifests.get(0);
+    }
+
+    /**
+     * Get lock files
+     *
+     * @return files
+     */
+    public List<String> getLocks() {
+        return locks;
+    }
+
+    /**
+     * Get command
+     *
+     * @return command or null
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Get args format
+     *
+     * @return args
+     */
+    public String getArgs() {
+        return args;
+    }
+
+    /**
+     * Can run concurrently with other scanners
+     *
+     * @return boolean
+     */
+    public boolean isParallelSafe() {
+        return parallelSafe;
+    }
+
+    /**
+     * Get args of the version probe
+     *
+     * @return args
+     */
+    public String getVersionArgs() {
+        return "--version";
+    }
+
+    /**
+     * Parse output of the version probe
+     *
+     * @param output output
+     * @return name as group 1 and version as group 2, null if output is not recognized
+     */
+    public MatchResult parseVersion(String output) {
+        Matcher matcher = PublisherStepExecution.VERSION_REGEX.matcher(output);
+        return matcher.find() ? matcher.toMatchResult() : null;
+    }
+
+    /**
+     * Get scan args
+     *
+     * @param credentials credentials
+     * @param project     project
+     * @return args
+     */
+    public String getScanArgs(PublisherCredentials credentials, String project) {
+        return String.format(args, credentials.getApiToken(), credentials.getUserName(), credentials.getUrl(), project);
+    }
+
+    /**
+     * Get scan id from output line
+     *
+     * @param line line
+     * @return scanId or null
+     */
+    @Override
+    public String findScanId(CharSequence line) {
+        return PublisherScanIdStream.findScanId(line);
+    }
+
+    /**
+     * Is installed version supported
+     *
+     * @param installed installed version
+     * @return boolean, false if installed version can't be parsed
+     */
+    public boolean isSupported(String installed) {
+        try {
+            return versions.contains(PublisherVersion.parse(installed));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create plugin object as stored with every scan
+     *
+     * @param manifest detected manifest file or null
+     * @return plugin object
+     */
+    public Map<String, String> toPlugin(String manifest) {
+        return toPlugin("", manifest);
+    }
+
+    /**
+     * Create plugin object of a module as stored with every scan. Manifest and lock files are
+     * relative to workspace, the command stays relative to the module.
+     *
+     * @param module   module directory, relative to workspace, empty for the workspace root
+     * @param manifest detected manifest file name or null
+     * @return plugin object
+     */
+    public Map<String, String> toPlugin(String module, String manifest) {
+        String prefix = module.isEmpty() ? "" : module + "/";
+        Map<String, String> plugin = new HashMap<String, String>();
+        plugin.put("name", name);
+        plugin.put("version", versions.toString());
+        plugin.put("file", manifest != null ? prefix + manifest : null);
+        plugin.put("locks", locks.isEmpty() ? null : join(prefix, locks));
+        plugin.put("command", command);
+        plugin.put("args", args);
+        if (!module.isEmpty()) {
+            plugin.put("module", module);
+        }
+        return plugin;
+    }
+
+    /**
+     * Join prefixed values with comma
+     *
+     * @param prefix prefix
+     * @param values values
+     * @return joined
+     */
+    private static String join(String prefix, List<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            builder.append(builder.length() == 0 ? "" : ",").append(prefix).append(value);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name         name
+     * @param versions     supported versions
+     * @param manifests    manifest file globs
+     * @param locks        lock files
+     * @param command      command or null
+     * @param args         args format
+     * @param parallelSafe can run concurrently with other scanners
+     */
+    public PublisherPluginDescriptor(String name, String versions, List<String> manifests, List<String> locks, String command, String args, boolean parallelSafe) {
+        this.name = name;
+        this.versions = PublisherVersionRange.parse(versions);
+        this.manifests = manifests != null ? Collections.unmodifiableList(manifests) : Collections.<String>emptyList();
+        this.locks = locks != null ? Collections.unmodifiableList(locks) : Collections.<String>emptyList();
+        this.command = command;
+        this.args = args;
+        this.parallelSafe = parallelSafe;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param name     name
+     * @param versions supported versions
+     * @param file     manifest file or null
+     * @param locks    lock files
+     * @param command  command or null
+     * @param args     args format
+     */
+    public PublisherPluginDescriptor(String name, String versions, String file, List<String> locks, String command, String args) {
+        this(name, versions, file != null ? Collections.singletonList(file) : null, locks, command, args, true);
+    }
+}
@@ -0,0 +1,180 @@
+package de.eacg.ecs.publisher;
+
+import hudson.ExtensionList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of supported scanner plugins: the built-in ones plus every
+ * {@link PublisherPluginDescriptor} extension, built once and shared.
+ */
+public final class PublisherPluginRegistry {
+    /**
+     * Default plugin name constant
+     */
+    public static final String DEFAULT_PLUGIN = "default_plugin";
+    /**
+     * Args format constant
+     */
+    private static final String ARGS = " -k %s -u %s --url %s -p %s";
+    /**
+     * Built-in plugins constant
+     */
+    private static final List<PublisherPluginDescriptor> BUILT_IN = Collections.unmodifiableList(Arrays.asList(
+            //ecs_bundler -k apiKey -u userName --url base_url -p project
+            //./vendor/bin/ecs-composer -k apiKey -u userName --url baseUrl -p project
+            //node_modules/.bin/ecs-node-client  -k apiKey -u userName --url baseUrl -p project
+            new PublisherPluginDescriptor(DEFAULT_PLUGIN, "1.0.0", null, null, null, ARGS),
+            new PublisherPluginDescriptor("eacg-gmbh/ecs-composer", "1.0.1", "composer.json",
+                    Arrays.asList("composer.lock"), "vendor/bin/ecs-composer", ARGS),
+            new PublisherPluginDescriptor("ecs_bundler", "1.0.1", "Gemfile",
+                    Arrays.asList("Gemfile.lock"), "ecs_bundler", ARGS),
+            new PublisherPluginDescriptor("ecs-node-client", "0.2.0", "package.json",
+                    Arrays.asList("package-lock.json", "npm-shrinkwrap.json", "yarn.lock"), "node_modules/.bin/ecs-node-client", ARGS)));
+    /**
+     * Shared registry, created on first use once extensions are loaded
+     */
+    private static volatile PublisherPluginRegistry shared;
+    /**
+     * Descriptors by name
+     */
+    private final Map<String, PublisherPluginDescriptor> descriptors;
+    /**
+     * Manifest index
+     */
+    private final PublisherManifestIndex index;
+
+    /**
+     * Get shared registry
+     *
+     * @return registry
+     */
+    public static PublisherPluginRegistry getShared() {
+        PublisherPluginRegistry registry = shared;
+        if (registry == null) {
+            synchronized (PublisherPluginRegistry.class) {
+                registry = shared;
+                if (registry == null) {
+                    shared = registry = new PublisherPluginRegistry(loadDescriptors());
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Load built-in descriptors and extensions, extensions replace built-ins of the same name
+     *
+     * @return descriptors
+     */
+    private static List<PublisherPluginDescriptor> loadDescriptors() {
+        List<PublisherPluginDescriptor> aDescriptors = new ArrayList<PublisherPluginDescriptor>(BUILT_IN);
+        try {
+            aDescriptors.addAll(ExtensionList.lookup(PublisherPluginDescriptor.class));
+        } catch (IllegalStateException e) {
+            // Jenkins is not running, built-in plugins only
+        }
+        return aDescriptors;
+    }
+
+    /**
+     * Get descriptor
+     *
+     * @param name name
+     * @return descriptor or null
+     */
+    public PublisherPluginDescriptor get(String name) {
+        return descriptors.get(name);
+    }
+
+    /**
+     * Get descriptor or default descriptor
+     *
+     * @param name name
+     * @return descriptor
+     */
+    public PublisherPluginDescriptor getOrDefault(String name) {
+        PublisherPluginDescriptor descriptor = descriptors.get(name);
+        return descriptor != null ? descriptor : descriptors.get(DEFAULT_PLUGIN);
+    }
+
+    /**
+     * Get all descriptors
+     *
+     * @return descriptors
+     */
+    public Collection<PublisherPluginDescriptor> getAll() {
+        return descriptors.values();
+    }
+
+    /**
+     * Get descriptors whose manifest globs match file name
+     *
+     * @param fileName file name, without directories
+     * @return descriptors
+     */
+    public List<PublisherPluginDescriptor> match(String fileName) {
+        List<PublisherPluginDescriptor> matches = new ArrayList<PublisherPluginDescriptor>();
+        for (String name : index.match(fileName)) {
+            matches.add(descriptors.get(name));
+        }
+        return matches;
+    }
+
+    /**
+     * Get manifest index
+     *
+     * @return index
+     */
+    public PublisherManifestIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Get commands of auto detected plugins
+     *
+     * @return commands by plugin name
+     */
+    public Map<String, String> getCommands() {
+        Map<String, String> commands = new LinkedHashMap<String, String>();
+        for (PublisherPluginDescriptor descriptor : descriptors.values()) {
+            if (!descriptor.getManifests().isEmpty() && descriptor.getCommand() != null) {
+                commands.put(descriptor.getName(), descriptor.getCommand());
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Get exact manifest names and lock files of all descriptors
+     *
+     * @return files, relative to workspace
+     */
+    public List<String> getManifestFiles() {
+        List<String> files = new ArrayList<String>(index.getNames());
+        for (PublisherPluginDescriptor descriptor : descriptors.values()) {
+            files.addAll(descriptor.getLocks());
+        }
+        return files;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param descriptors descriptors
+     */
+    PublisherPluginRegistry(Collection<PublisherPluginDescriptor> descriptors) {
+        Map<String, PublisherPluginDescriptor> aDescriptors = new LinkedHashMap<String, PublisherPluginDescriptor>();
+        for (PublisherPluginDescriptor descriptor : descriptors) {
+            aDescriptors.put(descriptor.getName(), descriptor);
+        }
+        this.descriptors = Collections.unmodifiableMap(aDescriptors);
+        this.index = new PublisherManifestIndex(this.descriptors.values());
+    }
+}
@@ -0,0 +1,104 @@
+package de.eacg.ecs.publisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line buffered stream which writes every complete line with a prefix to a shared logger,
+ * so output of concurrently running plugins does not interleave within a line.
+ */
+public class PublisherPrefixedStream extends OutputStream {
+    /**
+     * Shared logger
+     */
+    private final PrintStream logger;
+    /**
+     * Line prefix
+     */
+    private final byte[] prefix;
+    /**
+     * Current line
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+    /**
+     * Write byte
+     *
+     * @param b byte
+     */
+    @Override
+    public synchronized void write(int b) {
+        line.write(b);
+        if (b == '\n') {
+            flushLine();
+        }
+    }
+
+    /**
+     * Write bytes
+     *
+     * @param b   bytes
+     * @param off offset
+     * @param len length
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int start = off;
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                line.write(b, start, i + 1 - start);
+                flushLine();
+                start = i + 1;
+            }
+        }
+        line.write(b, start, end - start);
+    }
+
+    /**
+     * Flush, complete lines are already written and a partial line waits for its end, so a line
+     * arriving in several chunks is still logged as one line
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Write pending partial line
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (line.size() > 0) {
+            line.write('\n');
+            flushLine();
+        }
+    }
+
+    /**
+     * Write buffered line to logger
+     */
+    private void flushLine() {
+        synchronized (logger) {
+            logger.write(prefix, 0, prefix.length);
+            logger.write(line.toByteArray(), 0, line.size());
+            logger.flush();
+        }
+        line.reset();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param logger logger
+     * @param prefix prefix
+     */
+    PublisherPrefixedStream(PrintStream logger, String prefix) {
+        this.logger = logger;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+    }
+}
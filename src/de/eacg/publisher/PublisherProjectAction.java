@@ -1,11 +1,17 @@
 package de.eacg.ecs.publisher;
 
-import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
 import hudson.model.Run;
+import hudson.util.Graph;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -22,6 +28,14 @@ public class PublisherProjectAction implements Action {
     private AbstractProject<?, ?> project;
     private Run<?, ?> build;
     final private Class<PublisherAction> buildClass = PublisherAction.class;
+    /**
+     * Default trend points constant
+     */
+    public static final int DEFAULT_TREND_POINTS = 500;
+    /**
+     * Graph points constant
+     */
+    public static final int GRAPH_POINTS = 100;
 
     /**
      * Get icon file name
@@ -105,17 +119,97 @@ public class PublisherProjectAction implements Action {
         if (build != null) {
             return build;
         }
-        List<? extends AbstractBuild<?, ?>> builds = project.getBuilds();
-        for (AbstractBuild<?, ?> currentBuild : builds) {
-            if (currentBuild.getAction(buildClass) != null &&
-                    currentBuild.getAction(buildClass).getScans() != null) {
+        PublisherBuildIndex index = getIndex();
+        PublisherBuildIndex.Entry entry;
+        while ((entry = index.getLast()) != null) {
+            Run<?, ?> currentBuild = project.getBuildByNumber(entry.getNumber());
+            if (currentBuild != null && currentBuild.getAction(buildClass) != null) {
                 build = currentBuild;
                 return currentBuild;
             }
+            index.remove(entry.getNumber());
         }
         return null;
     }
 
+    /**
+     * Get trend store
+     *
+     * @return store
+     */
+    public PublisherTrendStore getTrendStore() {
+        return PublisherTrendStore.get(project);
+    }
+
+    /**
+     * Serve trend as json, downsampled to the points parameter
+     *
+     * @param req request
+     * @param rsp response
+     * @throws IOException IOException
+     */
+    public void doTrend(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        int points = DEFAULT_TREND_POINTS;
+        String param = req.getParameter("points");
+        if (param != null) {
+            try {
+                points = Integer.parseInt(param);
+            } catch (NumberFormatException e) {
+                points = DEFAULT_TREND_POINTS;
+            }
+        }
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().print(getTrendStore().getTrendJSON(points));
+    }
+
+    /**
+     * Get trend graph, every metric as a line over the downsampled builds, served as png at trendGraph/png
+     *
+     * @return graph
+     */
+    public Graph getTrendGraph() {
+        final PublisherTrendStore store = getTrendStore();
+        return new Graph(store.getLastModified(), 500, 200) {
+            @Override
+            protected JFreeChart createGraph() {
+                int[][] trend = store.getTrend(GRAPH_POINTS);
+                int[] builds = trend[PublisherTrendStore.Metric.BUILD.ordinal()];
+                DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+                for (PublisherTrendStore.Metric metric : PublisherTrendStore.Metric.values()) {
+                    if (metric == PublisherTrendStore.Metric.BUILD) {
+                        continue;
+                    }
+                    int[] values = trend[metric.ordinal()];
+                    for (int i = 0; i < builds.length; i++) {
+                        dataset.addValue(values[i], metric.getColumn(), "#" + builds[i]);
+                    }
+                }
+                return ChartFactory.createLineChart(null, null, null, dataset, PlotOrientation.VERTICAL, true, true, false);
+            }
+        };
+    }
+
+    /**
+     * Get build index, built from history on first use
+     *
+     * @return index
+     */
+    private PublisherBuildIndex getIndex() {
+        return PublisherBuildIndex.getInitialized(project);
+    }
+
+    /**
+     * Get summed statistics of last analysis, read from the build index for the last build
+     * which still exists
+     *
+     * @return statistics or null
+     */
+    public PublisherScanStatistics getLastStatistics() {
+        Run<?, ?> last = getBuild();
+        PublisherBuildIndex.Entry entry = last != null ? getIndex().getEntry(last.getNumber()) : null;
+        return entry != null ? entry.getStatistics() : null;
+    }
+
     /**
      * Constructor
      *
@@ -42,6 +42,14 @@ public class PublisherRecorder extends Recorder {
      * BreakOptions
      */
     private PublisherBreakOptions overrideBreakOptions;
+    /**
+     * Max plugins running at the same time
+     */
+    private Integer pluginConcurrency;
+    /**
+     * Detect and scan modules in the whole workspace
+     */
+    private Boolean monorepo;
 
     /**
      * Constructor
@@ -76,6 +84,26 @@ public class PublisherRecorder extends Recorder {
         this.overrideBreakOptions = overrideBreakOptions;
     }
 
+    /**
+     * Set optional params plugin concurrency.
+     *
+     * @param pluginConcurrency pluginConcurrency
+     */
+    @DataBoundSetter
+    public void setPluginConcurrency(Integer pluginConcurrency) {
+        this.pluginConcurrency = pluginConcurrency;
+    }
+
+    /**
+     * Set optional params monorepo mode.
+     *
+     * @param monorepo monorepo
+     */
+    @DataBoundSetter
+    public void setMonorepo(Boolean monorepo) {
+        this.monorepo = monorepo;
+    }
+
     /**
      * Get project
      *
@@ -112,6 +140,24 @@ public class PublisherRecorder extends Recorder {
         return overrideBreakOptions;
     }
 
+    /**
+     * Get plugin concurrency
+     *
+     * @return pluginConcurrency
+     */
+    public Integer getPluginConcurrency() {
+        return pluginConcurrency;
+    }
+
+    /**
+     * Get monorepo mode
+     *
+     * @return monorepo
+     */
+    public Boolean getMonorepo() {
+        return monorepo;
+    }
+
     /**
      * Get credentials
      *
@@ -154,6 +200,12 @@ public class PublisherRecorder extends Recorder {
     @Override
     public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException {
         PublisherStepExecution publisherStepExecution = new PublisherStepExecution(build, build.getWorkspace(), launcher, listener, listener.getLogger(), getProject(), getOverridePaths(), getCredentials(), getBreakOptions());
+        if (getPluginConcurrency() != null) {
+            publisherStepExecution.setPluginConcurrency(getPluginConcurrency());
+        }
+        if (getMonorepo() != null) {
+            publisherStepExecution.setMonorepo(getMonorepo());
+        }
         return publisherStepExecution.run();
     }
 
@@ -242,6 +294,7 @@ public class PublisherRecorder extends Recorder {
             credentials = req.bindJSON(PublisherCredentials.class, formData.getJSONObject("credentials"));
             breakOptions = req.bindJSON(PublisherBreakOptions.class, formData.getJSONObject("breakOptions"));
             save();
+            RestAuthorizationCache.getShared().invalidateAll();
             return super.configure(req, formData);
         }
 
@@ -0,0 +1,22 @@
+package de.eacg.ecs.publisher;
+
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+
+/**
+ * Removes deleted builds from the build index, so the last analysis and its statistics never
+ * point to a build which is gone
+ */
+@Extension
+public class PublisherRunListener extends RunListener<Run<?, ?>> {
+    /**
+     * Remove the deleted build from the index
+     *
+     * @param run build
+     */
+    @Override
+    public void onDeleted(Run<?, ?> run) {
+        PublisherBuildIndex.removeBuild(run);
+    }
+}
@@ -25,9 +25,41 @@ public class PublisherScan {
      */
     private final Map<String, String> plugin;
     /**
-     * Result
+     * Statistics, null until result is set
+     */
+    private PublisherScanStatistics statistics;
+    /**
+     * Url
+     */
+    private String url;
+    /**
+     * Project name from result
+     */
+    private String projectName;
+    /**
+     * Module name
+     */
+    private String moduleName;
+    /**
+     * Project id
+     */
+    private String projectId;
+    /**
+     * Module id
+     */
+    private String moduleId;
+    /**
+     * Result as stored by older versions, migrated on load
      */
     private JSONObject result;
+    /**
+     * Result of older versions waiting to be moved to the scan store
+     */
+    private transient JSONObject legacyResult;
+    /**
+     * Result rebuilt from the summary on demand
+     */
+    private transient JSONObject resultCache;
 
     /**
      * Get scan id
@@ -57,12 +89,34 @@ public class PublisherScan {
     }
 
     /**
-     * Get result
+     * Has result
+     *
+     * @return boolean
+     */
+    public boolean hasResult() {
+        return this.statistics != null;
+    }
+
+    /**
+     * Get result, rebuilt from the kept fields
      *
      * @return result
      */
     public JSONObject getResult() {
-        return this.result;
+        if (this.statistics == null) {
+            return null;
+        }
+        if (this.resultCache == null) {
+            JSONObject aResult = new JSONObject();
+            aResult.put("statistics", this.statistics.toJSON());
+            aResult.put("url", this.url);
+            aResult.put("project", this.projectName);
+            aResult.put("module", this.moduleName);
+            aResult.put("projectId", this.projectId);
+            aResult.put("moduleId", this.moduleId);
+            this.resultCache = aResult;
+        }
+        return this.resultCache;
     }
 
     /**
@@ -71,7 +125,16 @@ public class PublisherScan {
      * @return statistics object
      */
     public JSONObject getStatistics() {
-        return this.result.getJSONObject("statistics");
+        return getResult().getJSONObject("statistics");
+    }
+
+    /**
+     * Get typed statistics
+     *
+     * @return statistics
+     */
+    public PublisherScanStatistics getScanStatistics() {
+        return this.statistics;
     }
 
     /**
@@ -80,7 +143,7 @@ public class PublisherScan {
      * @return count
      */
     public int getComponents() {
-        return getStatistics().getInt("components");
+        return this.statistics.getComponents();
     }
 
     /**
@@ -89,7 +152,7 @@ public class PublisherScan {
      * @return count
      */
     public int getLicenses() {
-        return getStatistics().getInt("licenses");
+        return this.statistics.getLicenses();
     }
 
     /**
@@ -98,7 +161,7 @@ public class PublisherScan {
      * @return count
      */
     public int getVulnerabilityViolations() {
-        return getStatistics().getJSONObject("vulnerability").getInt("violations");
+        return this.statistics.getVulnerabilityViolations();
     }
 
     /**
@@ -107,7 +170,7 @@ public class PublisherScan {
      * @return count
      */
     public int getVulnerabilityWarnings() {
-        return getStatistics().getJSONObject("vulnerability").getInt("warnings");
+        return this.statistics.getVulnerabilityWarnings();
     }
 
     /**
@@ -116,7 +179,7 @@ public class PublisherScan {
      * @return count
      */
     public int getLegalViolations() {
-        return getStatistics().getJSONObject("legal").getInt("violations");
+        return this.statistics.getLegalViolations();
     }
 
     /**
@@ -125,7 +188,7 @@ public class PublisherScan {
      * @return count
      */
     public int getLegalWarnings() {
-        return getStatistics().getJSONObject("legal").getInt("warnings");
+        return this.statistics.getLegalWarnings();
     }
 
     /**
@@ -134,7 +197,7 @@ public class PublisherScan {
      * @return percentage
      */
     public double getVulnerabilityViolationsPercent() {
-        return (double) getVulnerabilityViolations() / getComponents();
+        return this.statistics.getVulnerabilityViolationsPercent();
     }
 
     /**
@@ -143,7 +206,7 @@ public class PublisherScan {
      * @return percentage
      */
     public double getVulnerabilityWarningsPercent() {
-        return (double) getVulnerabilityWarnings() / getComponents();
+        return this.statistics.getVulnerabilityWarningsPercent();
     }
 
     /**
@@ -152,7 +215,7 @@ public class PublisherScan {
      * @return percentage
      */
     public double getLegalViolationsPercent() {
-        return (double) getLegalViolations() / getLicenses();
+        return this.statistics.getLegalViolationsPercent();
     }
 
     /**
@@ -161,7 +224,7 @@ public class PublisherScan {
      * @return percentage
      */
     public double getLegalWarningsPercent() {
-        return (double) getLegalWarnings() / getLicenses();
+        return this.statistics.getLegalWarningsPercent();
     }
 
     /**
@@ -170,7 +233,7 @@ public class PublisherScan {
      * @return url
      */
     public String getUrl() {
-        return this.result.getString("url");
+        return this.url;
     }
 
     /**
@@ -179,7 +242,7 @@ public class PublisherScan {
      * @return project
      */
     public String getProjectName() {
-        return this.result.getString("project");
+        return this.projectName;
     }
 
     /**
@@ -188,7 +251,7 @@ public class PublisherScan {
      * @return module name
      */
     public String getModuleName() {
-        return this.result.getString("module");
+        return this.moduleName;
     }
 
     /**
@@ -197,7 +260,7 @@ public class PublisherScan {
      * @return projectId
      */
     public String getProjectId() {
-        return this.result.getString("projectId");
+        return this.projectId;
     }
 
     /**
@@ -206,16 +269,53 @@ public class PublisherScan {
      * @return moduleId
      */
     public String getModuleId() {
-        return this.result.getString("moduleId");
+        return this.moduleId;
     }
 
     /**
-     * Set result object
+     * Set result object, parsed once into the kept fields
      *
      * @param result result
      */
     public void setResult(JSONObject result) {
-        this.result = result;
+        this.resultCache = null;
+        if (result == null || result.optJSONObject("statistics") == null) {
+            this.statistics = null;
+            return;
+        }
+        this.statistics = PublisherScanStatistics.fromJSON(result.getJSONObject("statistics"));
+        this.url = result.optString("url", null);
+        this.projectName = result.optString("project", null);
+        this.moduleName = result.optString("module", null);
+        this.projectId = result.optString("projectId", null);
+        this.moduleId = result.optString("moduleId", null);
+    }
+
+    /**
+     * Migrate result stored by older versions
+     *
+     * @return this
+     */
+    private Object readResolve() {
+        if (this.result != null) {
+            if (this.statistics == null) {
+                setResult(this.result);
+            }
+            this.legacyResult = this.result;
+            this.result = null;
+        }
+        return this;
+    }
+
+    /**
+     * Take result of older versions for migration to the scan store
+     *
+     * @return result or null if there is nothing to migrate
+     */
+    JSONObject takeLegacyResult() {
+        JSONObject aResult = this.legacyResult;
+        this.legacyResult = null;
+        return aResult;
     }
 
     /**
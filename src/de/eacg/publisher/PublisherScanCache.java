@@ -0,0 +1,194 @@
+package de.eacg.ecs.publisher;
+
+import hudson.XmlFile;
+import hudson.model.Job;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-project cache of the last scan of every plugin, keyed by a hash of manifest and lock files,
+ * plugin version and server, so unchanged modules are not scanned again.
+ */
+public class PublisherScanCache {
+    /**
+     * File name constant, relative to job directory
+     */
+    public static final String FILE_NAME = "ecs-scan-cache.xml";
+    /**
+     * Loaded caches by job directory
+     */
+    private static final Map<File, PublisherScanCache> caches = new HashMap<File, PublisherScanCache>();
+    /**
+     * File
+     */
+    private final XmlFile file;
+    /**
+     * Entries by plugin name
+     */
+    private final HashMap<String, Entry> entries;
+
+    /**
+     * Get cache of job
+     *
+     * @param job job
+     * @return cache
+     */
+    public static PublisherScanCache get(Job<?, ?> job) {
+        File rootDir = job.getRootDir();
+        synchronized (caches) {
+            PublisherScanCache cache = caches.get(rootDir);
+            if (cache == null) {
+                cache = new PublisherScanCache(new XmlFile(new File(rootDir, FILE_NAME)));
+                caches.put(rootDir, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Forget loaded caches of a job directory and of job directories which no longer exist
+     *
+     * @param rootDir job directory
+     */
+    static void evict(File rootDir) {
+        synchronized (caches) {
+            caches.remove(rootDir);
+            for (Iterator<File> iterator = caches.keySet().iterator(); iterator.hasNext(); ) {
+                if (!iterator.next().isDirectory()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute cache key
+     *
+     * @param parts plugin name, version, url, user, project and "file=digest" for each manifest and lock file
+     * @return key
+     */
+    public static String computeKey(List<String> parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get cached scan id
+     *
+     * @param plugin plugin name
+     * @param key    key
+     * @return scanId or null on miss
+     */
+    public synchronized String getScanId(String plugin, String key) {
+        Entry entry = entries.get(plugin);
+        return entry != null && entry.key.equals(key) ? entry.scanId : null;
+    }
+
+    /**
+     * Put scan id
+     *
+     * @param plugin plugin name
+     * @param key    key
+     * @param scanId scanId
+     */
+    public synchronized void put(String plugin, String key, String scanId) {
+        entries.put(plugin, new Entry(key, scanId));
+        save();
+    }
+
+    /**
+     * Invalidate entries pointing to scan id, e.g. when its result can't be fetched anymore
+     *
+     * @param scanId scanId
+     */
+    public synchronized void invalidateScan(String scanId) {
+        boolean removed = false;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().scanId.equals(scanId)) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        if (removed) {
+            save();
+        }
+    }
+
+    /**
+     * Save cache
+     */
+    private void save() {
+        try {
+            file.write(entries);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cache entry
+     */
+    private static final class Entry {
+        /**
+         * Key
+         */
+        private final String key;
+        /**
+         * Scan id
+         */
+        private final String scanId;
+
+        /**
+         * Constructor
+         *
+         * @param key    key
+         * @param scanId scanId
+         */
+        private Entry(String key, String scanId) {
+            this.key = key;
+            this.scanId = scanId;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param file file
+     */
+    @SuppressWarnings("unchecked")
+    private PublisherScanCache(XmlFile file) {
+        this.file = file;
+        HashMap<String, Entry> loaded = null;
+        if (file.exists()) {
+            try {
+                loaded = (HashMap<String, Entry>) file.read();
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (ClassCastException e) {
+                e.printStackTrace();
+            }
+        }
+        this.entries = loaded != null ? loaded : new HashMap<String, Entry>();
+    }
+}
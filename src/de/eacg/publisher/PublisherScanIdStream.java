@@ -0,0 +1,203 @@
+package de.eacg.ecs.publisher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plugin stdout processor. Output is passed through to the build log line by line,
+ * scan id markers are matched as lines arrive and only a bounded tail is kept for error reporting.
+ */
+public class PublisherScanIdStream extends OutputStream {
+    /**
+     * Max bytes kept for a single line, longer lines are matched truncated
+     */
+    private static final int MAX_LINE = 64 * 1024;
+    /**
+     * Lines kept for error reporting
+     */
+    private static final int TAIL_LINES = 20;
+    /**
+     * Scan id parser
+     */
+    public interface Parser {
+        /**
+         * Get scan id from output line
+         *
+         * @param line line
+         * @return scanId or null
+         */
+        String findScanId(CharSequence line);
+    }
+
+    /**
+     * Tee target, may be null
+     */
+    private final OutputStream tee;
+    /**
+     * Parser, null for the default patterns
+     */
+    private final Parser parser;
+    /**
+     * Current line
+     */
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    /**
+     * Last lines
+     */
+    private final Deque<String> tail = new ArrayDeque<String>(TAIL_LINES);
+    /**
+     * Scan id, null until detected
+     */
+    private volatile String scanId;
+
+    /**
+     * Get scan id from line using precompiled patterns
+     *
+     * @param text text
+     * @return scanId or null
+     */
+    static String findScanId(CharSequence text) {
+        for (Pattern pattern : PublisherStepExecution.SCAN_ID_PATTERNS) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find())
+                return matcher.group(1);
+        }
+        return null;
+    }
+
+    /**
+     * Get scan id
+     *
+     * @return scanId or null if not detected yet
+     */
+    public String getScanId() {
+        return scanId;
+    }
+
+    /**
+     * Get last lines of output
+     *
+     * @return tail
+     */
+    public synchronized String getTail() {
+        StringBuilder builder = new StringBuilder();
+        for (String tailLine : tail) {
+            builder.append(tailLine).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Write byte
+     *
+     * @param b byte
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void write(int b) throws IOException {
+        if (tee != null) {
+            tee.write(b);
+        }
+        append(b);
+    }
+
+    /**
+     * Write bytes
+     *
+     * @param b   bytes
+     * @param off offset
+     * @param len length
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (tee != null) {
+            tee.write(b, off, len);
+        }
+        for (int i = off; i < off + len; i++) {
+            append(b[i]);
+        }
+    }
+
+    /**
+     * Flush
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (tee != null) {
+            tee.flush();
+        }
+    }
+
+    /**
+     * Process pending partial line, ending it in the tee target too, and flush
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (line.size() > 0) {
+            if (tee != null) {
+                tee.write('\n');
+            }
+            processLine();
+        }
+        flush();
+    }
+
+    /**
+     * Append byte to current line
+     *
+     * @param b byte
+     */
+    private void append(int b) {
+        if (b == '\n') {
+            processLine();
+        } else if (line.size() < MAX_LINE) {
+            line.write(b);
+        }
+    }
+
+    /**
+     * Match and remember finished line
+     */
+    private void processLine() {
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        line.reset();
+        if (scanId == null) {
+            scanId = parser != null ? parser.findScanId(text) : findScanId(text);
+        }
+        if (tail.size() == TAIL_LINES) {
+            tail.removeFirst();
+        }
+        tail.addLast(text);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tee    tee target, may be null
+     * @param parser parser, null for the default patterns
+     */
+    PublisherScanIdStream(OutputStream tee, Parser parser) {
+        this.tee = tee;
+        this.parser = parser;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tee tee target, may be null
+     */
+    PublisherScanIdStream(OutputStream tee) {
+        this(tee, null);
+    }
+}
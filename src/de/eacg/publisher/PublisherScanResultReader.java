@@ -0,0 +1,188 @@
+package de.eacg.ecs.publisher;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+
+/**
+ * Streaming reader for scan results. Only the fields PublisherScan exposes are kept,
+ * everything else is skipped token by token.
+ */
+public class PublisherScanResultReader {
+    /**
+     * Kept string fields constant
+     */
+    private static final String[] STRING_FIELDS = {"url", "project", "module", "projectId", "moduleId"};
+
+    /**
+     * Read scan result summary
+     *
+     * @param in  input
+     * @param raw copy of the raw payload, may be null
+     * @return summary or null if payload is not an object
+     * @throws IOException IOException
+     */
+    public static JSONObject read(InputStream in, OutputStream raw) throws IOException {
+        InputStream source = raw != null ? new TeeInputStream(in, raw) : in;
+        JsonStreamReader reader = new JsonStreamReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        JSONObject summary = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("statistics")) {
+                summary.put(name, readValue(reader));
+            } else if (isStringField(name)) {
+                summary.put(name, reader.nextStringOrNull());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (raw != null) {
+            drain(source);
+        }
+        return summary;
+    }
+
+    /**
+     * Is kept string field
+     *
+     * @param name name
+     * @return boolean
+     */
+    private static boolean isStringField(String name) {
+        for (String field : STRING_FIELDS) {
+            if (field.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read value into json-lib objects
+     *
+     * @param reader reader
+     * @return value
+     * @throws IOException IOException
+     */
+    static Object readValue(JsonStreamReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                JSONObject object = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    object.put(name, readValue(reader));
+                }
+                reader.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.add(readValue(reader));
+                }
+                reader.endArray();
+                return array;
+            case NUMBER:
+                String number = reader.nextString();
+                if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                    return Double.valueOf(number);
+                }
+                long value = Long.parseLong(number);
+                return value == (int) value ? Integer.valueOf((int) value) : Long.valueOf(value);
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONNull.getInstance();
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Read rest of input so the raw copy is complete
+     *
+     * @param in input
+     * @throws IOException IOException
+     */
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // copied by tee
+        }
+    }
+
+    /**
+     * Input stream copying everything read to an output stream
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+        /**
+         * Copy target
+         */
+        private final OutputStream copy;
+
+        /**
+         * Read byte
+         *
+         * @return byte
+         * @throws IOException IOException
+         */
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        /**
+         * Read bytes
+         *
+         * @param b   buffer
+         * @param off offset
+         * @param len length
+         * @return count
+         * @throws IOException IOException
+         */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                copy.write(b, off, count);
+            }
+            return count;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param in   input
+         * @param copy copy target
+         */
+        private TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    private PublisherScanResultReader() {
+    }
+}
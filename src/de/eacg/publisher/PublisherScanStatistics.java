@@ -0,0 +1,253 @@
+package de.eacg.ecs.publisher;
+
+import net.sf.json.JSONObject;
+
+/**
+ * Immutable scan statistics, parsed once from the scan result
+ */
+public final class PublisherScanStatistics {
+    /**
+     * Components count
+     */
+    private final int components;
+    /**
+     * Licenses count
+     */
+    private final int licenses;
+    /**
+     * Vulnerability violations
+     */
+    private final int vulnerabilityViolations;
+    /**
+     * Vulnerability warnings
+     */
+    private final int vulnerabilityWarnings;
+    /**
+     * Legal violations
+     */
+    private final int legalViolations;
+    /**
+     * Legal warnings
+     */
+    private final int legalWarnings;
+    /**
+     * Viability violations
+     */
+    private final int viabilityViolations;
+    /**
+     * Viability warnings
+     */
+    private final int viabilityWarnings;
+    /**
+     * Vulnerability violations percent
+     */
+    private final double vulnerabilityViolationsPercent;
+    /**
+     * Vulnerability warnings percent
+     */
+    private final double vulnerabilityWarningsPercent;
+    /**
+     * Legal violations percent
+     */
+    private final double legalViolationsPercent;
+    /**
+     * Legal warnings percent
+     */
+    private final double legalWarningsPercent;
+
+    /**
+     * Parse statistics object
+     *
+     * @param statistics statistics
+     * @return statistics
+     */
+    public static PublisherScanStatistics fromJSON(JSONObject statistics) {
+        return new PublisherScanStatistics(
+                statistics.optInt("components"),
+                statistics.optInt("licenses"),
+                getInt(statistics, "vulnerability", "violations"),
+                getInt(statistics, "vulnerability", "warnings"),
+                getInt(statistics, "legal", "violations"),
+                getInt(statistics, "legal", "warnings"),
+                getInt(statistics, "viability", "violations"),
+                getInt(statistics, "viability", "warnings"));
+    }
+
+    /**
+     * Get nested int, 0 if absent
+     *
+     * @param statistics statistics
+     * @param category   category
+     * @param key        key
+     * @return int
+     */
+    private static int getInt(JSONObject statistics, String category, String key) {
+        JSONObject object = statistics.optJSONObject(category);
+        return object != null ? object.optInt(key) : 0;
+    }
+
+    /**
+     * Convert back to statistics object
+     *
+     * @return statistics
+     */
+    public JSONObject toJSON() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("components", components);
+        statistics.put("licenses", licenses);
+        statistics.put("vulnerability", toJSON(vulnerabilityViolations, vulnerabilityWarnings));
+        statistics.put("legal", toJSON(legalViolations, legalWarnings));
+        statistics.put("viability", toJSON(viabilityViolations, viabilityWarnings));
+        return statistics;
+    }
+
+    /**
+     * Convert category to object
+     *
+     * @param violations violations
+     * @param warnings   warnings
+     * @return category
+     */
+    private static JSONObject toJSON(int violations, int warnings) {
+        JSONObject category = new JSONObject();
+        category.put("violations", violations);
+        category.put("warnings", warnings);
+        return category;
+    }
+
+    /**
+     * Get components count
+     *
+     * @return count
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * Get licenses count
+     *
+     * @return count
+     */
+    public int getLicenses() {
+        return licenses;
+    }
+
+    /**
+     * Get vulnerability violations
+     *
+     * @return count
+     */
+    public int getVulnerabilityViolations() {
+        return vulnerabilityViolations;
+    }
+
+    /**
+     * Get vulnerability warnings
+     *
+     * @return count
+     */
+    public int getVulnerabilityWarnings() {
+        return vulnerabilityWarnings;
+    }
+
+    /**
+     * Get legal violations
+     *
+     * @return count
+     */
+    public int getLegalViolations() {
+        return legalViolations;
+    }
+
+    /**
+     * Get legal warnings
+     *
+     * @return count
+     */
+    public int getLegalWarnings() {
+        return legalWarnings;
+    }
+
+    /**
+     * Get viability violations
+     *
+     * @return count
+     */
+    public int getViabilityViolations() {
+        return viabilityViolations;
+    }
+
+    /**
+     * Get viability warnings
+     *
+     * @return count
+     */
+    public int getViabilityWarnings() {
+        return viabilityWarnings;
+    }
+
+    /**
+     * Get vulnerability violations percent
+     *
+     * @return percentage
+     */
+    public double getVulnerabilityViolationsPercent() {
+        return vulnerabilityViolationsPercent;
+    }
+
+    /**
+     * Get vulnerability warnings percent
+     *
+     * @return percentage
+     */
+    public double getVulnerabilityWarningsPercent() {
+        return vulnerabilityWarningsPercent;
+    }
+
+    /**
+     * Get legal violations percent
+     *
+     * @return percentage
+     */
+    public double getLegalViolationsPercent() {
+        return legalViolationsPercent;
+    }
+
+    /**
+     * Get legal warnings percent
+     *
+     * @return percentage
+     */
+    public double getLegalWarningsPercent() {
+        return legalWarningsPercent;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param components              components
+     * @param licenses                licenses
+     * @param vulnerabilityViolations vulnerabilityViolations
+     * @param vulnerabilityWarnings   vulnerabilityWarnings
+     * @param legalViolations         legalViolations
+     * @param legalWarnings           legalWarnings
+     * @param viabilityViolations     viabilityViolations
+     * @param viabilityWarnings       viabilityWarnings
+     */
+    public PublisherScanStatistics(int components, int licenses, int vulnerabilityViolations, int vulnerabilityWarnings,
+                                   int legalViolations, int legalWarnings, int viabilityViolations, int viabilityWarnings) {
+        this.components = components;
+        this.licenses = licenses;
+        this.vulnerabilityViolations = vulnerabilityViolations;
+        this.vulnerabilityWarnings = vulnerabilityWarnings;
+        this.legalViolations = legalViolations;
+        this.legalWarnings = legalWarnings;
+        this.viabilityViolations = viabilityViolations;
+        this.viabilityWarnings = viabilityWarnings;
+        this.vulnerabilityViolationsPercent = (double) vulnerabilityViolations / components;
+        this.vulnerabilityWarningsPercent = (double) vulnerabilityWarnings / components;
+        this.legalViolationsPercent = (double) legalViolations / licenses;
+        this.legalWarningsPercent = (double) legalWarnings / licenses;
+    }
+}
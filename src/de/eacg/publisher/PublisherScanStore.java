@@ -0,0 +1,166 @@
+package de.eacg.ecs.publisher;
+
+import net.sf.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Side-car store for raw scan results, one gzip file per scan in the build directory
+ */
+public class PublisherScanStore {
+    /**
+     * Directory name constant, relative to build directory
+     */
+    public static final String DIRECTORY_NAME = "ecs-scans";
+    /**
+     * Directory
+     */
+    private final File directory;
+
+    /**
+     * Get file name of raw scan result
+     *
+     * @param scanId scanId
+     * @return file name
+     */
+    static String getFileName(String scanId) {
+        return scanId.replaceAll("[^A-Za-z0-9._-]", "_") + ".json.gz";
+    }
+
+    /**
+     * Get file of raw scan result
+     *
+     * @param scanId scanId
+     * @return file
+     */
+    public File getFile(String scanId) {
+        return new File(directory, getFileName(scanId));
+    }
+
+    /**
+     * Get temporary file of raw scan result being written
+     *
+     * @param scanId scanId
+     * @return file
+     */
+    private File getTempFile(String scanId) {
+        return new File(directory, getFileName(scanId) + ".tmp");
+    }
+
+    /**
+     * Has raw scan result
+     *
+     * @param scanId scanId
+     * @return boolean
+     */
+    public boolean has(String scanId) {
+        return getFile(scanId).isFile();
+    }
+
+    /**
+     * Open compressed output for raw scan result. It goes to a temporary file which replaces the
+     * stored result on {@link #commit} and is dropped by {@link #discard}, so a payload which
+     * couldn't be read completely is never left behind.
+     *
+     * @param scanId scanId
+     * @return output, to be closed by caller
+     * @throws IOException IOException
+     */
+    public OutputStream open(String scanId) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        return new GZIPOutputStream(new FileOutputStream(getTempFile(scanId)));
+    }
+
+    /**
+     * Store raw scan result written to the closed output of {@link #open}
+     *
+     * @param scanId scanId
+     * @throws IOException IOException
+     */
+    public void commit(String scanId) throws IOException {
+        Files.move(getTempFile(scanId).toPath(), getFile(scanId).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Drop raw scan result written to the output of {@link #open}
+     *
+     * @param scanId scanId
+     */
+    public void discard(String scanId) {
+        File temp = getTempFile(scanId);
+        if (temp.exists() && !temp.delete()) {
+            temp.deleteOnExit();
+        }
+    }
+
+    /**
+     * Write raw scan result
+     *
+     * @param scanId scanId
+     * @param result result
+     * @throws IOException IOException
+     */
+    public void write(String scanId, JSONObject result) throws IOException {
+        OutputStream out = open(scanId);
+        boolean written = false;
+        try {
+            out.write(result.toString().getBytes(StandardCharsets.UTF_8));
+            out.close();
+            written = true;
+        } finally {
+            if (!written) {
+                out.close();
+                discard(scanId);
+            }
+        }
+        commit(scanId);
+    }
+
+    /**
+     * Read raw scan result
+     *
+     * @param scanId scanId
+     * @return result or null if not stored
+     * @throws IOException IOException
+     */
+    public JSONObject read(String scanId) throws IOException {
+        File file = getFile(scanId);
+        if (!file.isFile()) {
+            return null;
+        }
+        InputStream in = new GZIPInputStream(new FileInputStream(file));
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                json.write(buffer, 0, count);
+            }
+            return JSONObject.fromObject(json.toString("UTF-8"));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param buildDirectory build directory
+     */
+    public PublisherScanStore(File buildDirectory) {
+        this.directory = new File(buildDirectory, DIRECTORY_NAME);
+    }
+}
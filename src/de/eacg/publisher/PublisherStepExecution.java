@@ -9,10 +9,18 @@ import net.sf.json.JSONObject;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -65,57 +73,104 @@ public class PublisherStepExecution {
     /**
      * Scans
      */
-    Map<String, PublisherScan> scans = new HashMap<String, PublisherScan>();
+    Map<String, PublisherScan> scans = new ConcurrentHashMap<String, PublisherScan>();
+    /**
+     * Result polls by scan id, started as soon as a plugin prints its scan id
+     */
+    private final Map<String, CompletableFuture<JSONObject>> pendingResults = new HashMap<String, CompletableFuture<JSONObject>>();
+    /**
+     * Result of the last discovery on the agent
+     */
+    private PublisherDiscovery.Result discovery;
+    /**
+     * Max plugins running at the same time
+     */
+    private int pluginConcurrency = DEFAULT_PLUGIN_CONCURRENCY;
+    /**
+     * Detect and scan modules in the whole workspace
+     */
+    private boolean monorepo;
     /**
      * Patterns constant
      */
     public static final List<String> PATTERNS = Collections.unmodifiableList(Arrays.asList("\\{\"scanId\":\"([^\"]*)\"}", "scanId => ([^ \n]*)"));
     /**
-     * Version pattern constant
+     * Compiled patterns constant
      */
-    public static final String VERSION_PATTERN = "([^ ]*) version ([^\"]*)";
+    static final List<Pattern> SCAN_ID_PATTERNS;
+
+    static {
+        List<Pattern> aPatterns = new ArrayList<Pattern>();
+        for (String pattern : PATTERNS) {
+            aPatterns.add(Pattern.compile(pattern));
+        }
+        SCAN_ID_PATTERNS = Collections.unmodifiableList(aPatterns);
+    }
 
     /**
-     * Plugin list constant
+     * Default plugin concurrency constant
      */
-    private static final Map<String, Map<String, String>> pluginsList;
+    public static final int DEFAULT_PLUGIN_CONCURRENCY = Integer.getInteger(PublisherStepExecution.class.getName() + ".pluginConcurrency", 3);
+    /**
+     * Pipeline results constant, start polling the result of each plugin as soon as it exits,
+     * while other plugins are still running
+     */
+    public static final boolean PIPELINE_RESULTS = !Boolean.getBoolean(PublisherStepExecution.class.getName() + ".disablePipelineResults");
+    /**
+     * Keep raw results constant, store compressed raw scan results next to build.xml
+     */
+    public static final boolean KEEP_RAW_RESULTS = !Boolean.getBoolean(PublisherStepExecution.class.getName() + ".discardRawResults");
+    /**
+     * Scan cache constant, reuse previous scan of a plugin while its manifest files are unchanged
+     */
+    public static final boolean SCAN_CACHE = !Boolean.getBoolean(PublisherStepExecution.class.getName() + ".disableScanCache");
+    /**
+     * Log pool statistics constant, log connection pool statistics at the end of every build
+     */
+    public static final boolean LOG_POOL_STATS = Boolean.getBoolean(PublisherStepExecution.class.getName() + ".logPoolStats");
+    /**
+     * Directory names skipped in monorepo mode, extended by a comma separated system property
+     */
+    public static final Set<String> MONOREPO_IGNORED;
 
     static {
-        Map<String, Map<String, String>> aPlugins = new HashMap<String, Map<String, String>>();
-        Map<String, String> aPlugin = new HashMap<String, String>();
-        aPlugin.put("name", "default_plugin");
-        aPlugin.put("version", "1.0.0");
-        aPlugin.put("file", null);
-        aPlugin.put("command", null);
-        aPlugin.put("args", " -k %s -u %s --url %s -p %s");
-        aPlugins.put(aPlugin.get("name"), aPlugin);
-        aPlugin = new HashMap<String, String>();
-        aPlugin.put("name", "eacg-gmbh/ecs-composer");
-        aPlugin.put("version", "1.0.1");
-        aPlugin.put("file", "composer.json");
-        aPlugin.put("command", "vendor/bin/ecs-composer");
-        aPlugin.put("args", " -k %s -u %s --url %s -p %s");
-        aPlugins.put(aPlugin.get("name"), aPlugin);
-        aPlugin = new HashMap<String, String>();
-        aPlugin.put("name", "ecs_bundler");
-        aPlugin.put("version", "1.0.1");
-        aPlugin.put("file", "Gemfile");
-        aPlugin.put("command", "ecs_bundler");
-        aPlugin.put("args", " -k %s -u %s --url %s -p %s");
-        aPlugins.put(aPlugin.get("name"), aPlugin);
-        aPlugin = new HashMap<String, String>();
-        aPlugin.put("name", "ecs-node-client");
-        aPlugin.put("version", "0.2.0");
-        aPlugin.put("file", "package.json");
-        aPlugin.put("command", "node_modules/.bin/ecs-node-client");
-        aPlugin.put("args", " -k %s -u %s --url %s -p %s");
-        aPlugins.put(aPlugin.get("name"), aPlugin);
-        //ecs_bundler -k apiKey -u userName --url base_url -p project
-        //./vendor/bin/ecs-composer -k apiKey -u userName --url baseUrl -p project
-        //node_modules/.bin/ecs-node-client  -k apiKey -u userName --url baseUrl -p project
-        pluginsList = Collections.unmodifiableMap(aPlugins);
+        Set<String> aIgnored = new HashSet<String>(Arrays.asList("node_modules", "vendor", ".git", ".svn", ".hg"));
+        String extra = System.getProperty(PublisherStepExecution.class.getName() + ".monorepoIgnore");
+        if (extra != null) {
+            for (String name : extra.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    aIgnored.add(name.trim());
+                }
+            }
+        }
+        MONOREPO_IGNORED = Collections.unmodifiableSet(aIgnored);
     }
 
+    /**
+     * Version pattern constant
+     */
+    public static final String VERSION_PATTERN = "([^ ]*) version ([^\"]*)";
+    /**
+     * Compiled version pattern constant
+     */
+    static final Pattern VERSION_REGEX = Pattern.compile(VERSION_PATTERN);
+    /**
+     * Version probe outputs kept at most constant
+     */
+    public static final int VERSION_OUTPUTS = Integer.getInteger(PublisherStepExecution.class.getName() + ".versionOutputs", 256);
+    /**
+     * Version probe outputs by agent and executable fingerprint, least recently used dropped first
+     * so outputs of gone workspaces and jobs don't accumulate
+     */
+    private static final Map<String, String> versionOutputs = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > VERSION_OUTPUTS;
+        }
+    });
+
     /**
      * Get scan id from text
      *
@@ -123,35 +178,90 @@ public class PublisherStepExecution {
      * @return scanId
      */
     protected String getScanId(String text) {
-        for (String pattern : PATTERNS) {
-            Pattern mPattern = Pattern.compile(pattern);
-            Matcher matcher = mPattern.matcher(text);
-            if (matcher.find())
-                return matcher.toMatchResult().group(1);
+        return PublisherScanIdStream.findScanId(text);
+    }
+
+    /**
+     * Get output of version probe, cached per agent by executable path, mtime and size
+     *
+     * @param module module directory, relative to workspace, empty for the workspace root
+     * @param path   path, relative to module
+     * @param args   probe args
+     * @return output
+     * @throws PublisherStepExecutionError PublisherStepExecutionError
+     */
+    protected String getVersionOutput(String module, String path, String args) throws PublisherStepExecutionError {
+        String fingerprint = discovery != null ? discovery.getFingerprint(PublisherDiscovery.getCommandPath(module, path)) : null;
+        String key = null;
+        if (fingerprint != null) {
+            Computer computer = workspace.toComputer();
+            key = (computer != null ? computer.getName() : "") + "|" + fingerprint + "|" + args;
+            String cached = versionOutputs.get(key);
+            if (cached != null) {
+                return cached;
+            }
         }
-        return null;
+        ArgumentListBuilder command = new ArgumentListBuilder();
+        command.addTokenized(path);
+        command.addTokenized(args);
+        String text = runCommand(command, getModuleDirectory(module));
+        if (key != null) {
+            versionOutputs.put(key, text);
+        }
+        return text;
+    }
+
+    /**
+     * Get manifest and lock files of all known plugins
+     *
+     * @return files, relative to workspace
+     */
+    protected List<String> getManifestFiles() {
+        return PublisherPluginRegistry.getShared().getManifestFiles();
+    }
+
+    /**
+     * Get module directory
+     *
+     * @param module module directory, relative to workspace, empty for the workspace root
+     * @return directory
+     */
+    protected FilePath getModuleDirectory(String module) {
+        return module == null || module.isEmpty() ? workspace : workspace.child(module);
+    }
+
+    /**
+     * Discover existing files and executable fingerprints in one call to the agent
+     *
+     * @param files         files, relative to workspace
+     * @param commands      commands
+     * @param detectModules detect modules with plugin manifests, in the whole workspace in monorepo mode
+     * @return result
+     * @throws IOException          IOException
+     * @throws InterruptedException InterruptedException
+     */
+    protected PublisherDiscovery.Result discover(List<String> files, List<String> commands, boolean detectModules) throws IOException, InterruptedException {
+        String path = build.getEnvironment(listener).get("PATH");
+        PublisherPluginRegistry registry = PublisherPluginRegistry.getShared();
+        discovery = workspace.act(!detectModules ? new PublisherDiscovery(files, commands, path)
+                : new PublisherDiscovery(files, commands, path, registry.getIndex(), registry.getCommands(), monorepo, MONOREPO_IGNORED));
+        return discovery;
     }
 
     /**
      * Get name and version
      *
-     * @param path path
+     * @param descriptor descriptor providing the version probe
+     * @param module     module directory, relative to workspace, empty for the workspace root
+     * @param path       path, relative to module
      * @return name and version
      * @throws PublisherStepExecutionError PublisherStepExecutionError
      */
-    protected MatchResult getNameAndVersion(String path) throws PublisherStepExecutionError {
-        ArgumentListBuilder command = new ArgumentListBuilder();
-        command.addTokenized(path);
-        command.addTokenized("--version");
-        String text = runCommand(command);
-        Pattern mPattern = Pattern.compile(VERSION_PATTERN);
-        Matcher matcher = mPattern.matcher(text);
-        MatchResult nameAndVersion;
-        if (matcher != null && matcher.find()) {
-            nameAndVersion = matcher.toMatchResult();
-            if (nameAndVersion != null) {
-                return nameAndVersion;
-            }
+    protected MatchResult getNameAndVersion(PublisherPluginDescriptor descriptor, String module, String path) throws PublisherStepExecutionError {
+        String text = getVersionOutput(module, path, descriptor.getVersionArgs());
+        MatchResult nameAndVersion = descriptor.parseVersion(text);
+        if (nameAndVersion != null) {
+            return nameAndVersion;
         }
         throw new PublisherStepExecutionError(Messages.PublisherStepExecution_notReturnCorrectNameAndVersion());
     }
@@ -164,16 +274,57 @@ public class PublisherStepExecution {
      * @throws PublisherStepExecutionError PublisherStepExecutionError
      */
     protected String runCommand(ArgumentListBuilder command) throws PublisherStepExecutionError {
+        return runCommand(command, workspace);
+    }
+
+    /**
+     * Run command in directory
+     *
+     * @param command command
+     * @param pwd     working directory
+     * @return output
+     * @throws PublisherStepExecutionError PublisherStepExecutionError
+     */
+    protected String runCommand(ArgumentListBuilder command, FilePath pwd) throws PublisherStepExecutionError {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        runCommand(command, baos, pwd);
+        try {
+            return baos.toString("utf-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new PublisherStepExecutionError(e.getMessage());
+        }
+    }
+
+    /**
+     * Run command streaming its output
+     *
+     * @param command command
+     * @param stdout  stdout
+     * @throws PublisherStepExecutionError PublisherStepExecutionError
+     */
+    protected void runCommand(ArgumentListBuilder command, OutputStream stdout) throws PublisherStepExecutionError {
+        runCommand(command, stdout, workspace);
+    }
+
+    /**
+     * Run command in directory streaming its output
+     *
+     * @param command command
+     * @param stdout  stdout
+     * @param pwd     working directory
+     * @throws PublisherStepExecutionError PublisherStepExecutionError
+     */
+    protected void runCommand(ArgumentListBuilder command, OutputStream stdout, FilePath pwd) throws PublisherStepExecutionError {
         String message;
         try {
             Launcher.ProcStarter ps = launcher.new ProcStarter();
-            ps = ps.cmds(command).stdout(baos);
-            ps = ps.pwd(workspace).envs(build.getEnvironment(listener));
+            ps = ps.cmds(command).stdout(stdout);
+            ps = ps.pwd(pwd).envs(build.getEnvironment(listener));
             Proc proc = launcher.launch(ps);
             int retcode = proc.join();
+            stdout.close();
             if (retcode == 0) {
-                return baos.toString("utf-8");
+                return;
             } else {
                 message = Messages.PublisherStepExecution_commandReturn(retcode);
             }
@@ -188,7 +339,7 @@ public class PublisherStepExecution {
     }
 
     /**
-     * Detect plugins
+     * Detect plugins, in the workspace root or in every module in monorepo mode
      *
      * @return plugins
      * @throws PublisherStepExecutionError PublisherStepExecutionError
@@ -197,16 +348,49 @@ public class PublisherStepExecution {
         List<Map<String, String>> plugins = new ArrayList<Map<String, String>>();
         logger.println(Messages.PublisherStepExecution_loggerLine() + " " + "Detecting plugins.");
         try {
-            for (Map.Entry<String, Map<String, String>> entry : pluginsList.entrySet()) {
-                String key = entry.getKey();
-                Map<String, String> aPlugin = entry.getValue();
-                if (aPlugin.get("file") != null && workspace.child(aPlugin.get("file")).exists()) {
-                    MatchResult nameAndVersion = getNameAndVersion(aPlugin.get("command"));
-                    Map<String, String> plugin = new HashMap<String, String>(aPlugin);
-                    plugin.put("version_installed", nameAndVersion.group(2));
-                    plugins.add(plugin);
+            PublisherPluginRegistry registry = PublisherPluginRegistry.getShared();
+            PublisherDiscovery.Result aDiscovery = discover(getManifestFiles(), new ArrayList<String>(), true);
+            if (monorepo) {
+                logger.println(Messages.PublisherStepExecution_loggerLine() + " " + "Found " + aDiscovery.getModules().size() + " module(s).");
+            }
+            int probes = 0;
+            for (Map<String, String> module : aDiscovery.getModules().values()) {
+                probes += module.size();
+            }
+            if (probes == 0) {
+                return plugins;
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(pluginConcurrency, probes)));
+            List<Future<Map<String, String>>> futures = new ArrayList<Future<Map<String, String>>>();
+            for (final Map.Entry<String, ? extends Map<String, String>> module : aDiscovery.getModules().entrySet()) {
+                for (final Map.Entry<String, String> entry : module.getValue().entrySet()) {
+                    final PublisherPluginDescriptor descriptor = registry.get(entry.getKey());
+                    futures.add(executor.submit(new Callable<Map<String, String>>() {
+                        @Override
+                        public Map<String, String> call() throws PublisherStepExecutionError {
+                            return detectPlugin(descriptor, module.getKey(), entry.getValue());
+                        }
+                    }));
                 }
             }
+            executor.shutdown();
+            try {
+                for (Future<Map<String, String>> future : futures) {
+                    Map<String, String> plugin = future.get();
+                    if (plugin != null) {
+                        plugins.add(plugin);
+                    }
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof PublisherStepExecutionError) {
+                    throw (PublisherStepExecutionError) e.getCause();
+                }
+                throw new PublisherStepExecutionError(e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw e;
+            }
             return plugins;
         } catch (IOException e) {
             e.printStackTrace();
@@ -218,6 +402,44 @@ public class PublisherStepExecution {
         return new ArrayList<Map<String, String>>();
     }
 
+    /**
+     * Detect plugin of a module by its version probe. For submodules the module's own command is
+     * tried first, then the workspace root's and the one on PATH, so modules of hoisted workspaces
+     * without their own binaries are still scanned, and modules where no command works are
+     * skipped. The workspace root only tries its own command and fails if it doesn't work.
+     *
+     * @param descriptor descriptor
+     * @param module     module directory, relative to workspace, empty for the workspace root
+     * @param manifest   detected manifest file name
+     * @return plugin or null if skipped
+     * @throws PublisherStepExecutionError if the probe of the workspace root fails
+     */
+    private Map<String, String> detectPlugin(PublisherPluginDescriptor descriptor, String module, String manifest) throws PublisherStepExecutionError {
+        if (module.isEmpty()) {
+            MatchResult nameAndVersion = getNameAndVersion(descriptor, module, descriptor.getCommand());
+            Map<String, String> plugin = descriptor.toPlugin(module, manifest);
+            plugin.put("version_installed", nameAndVersion.group(2));
+            return plugin;
+        }
+        String message = null;
+        for (String command : PublisherDiscovery.getCommandCandidates(module, descriptor.getCommand())) {
+            try {
+                MatchResult nameAndVersion = getNameAndVersion(descriptor, module, command);
+                Map<String, String> plugin = descriptor.toPlugin(module, manifest);
+                if (!command.equals(descriptor.getCommand())) {
+                    logger.println(Messages.PublisherStepExecution_loggerLine() + " " + "Using " + command + " for " + descriptor.getName() + " in module '" + module + "'.");
+                    plugin.put("command", command);
+                }
+                plugin.put("version_installed", nameAndVersion.group(2));
+                return plugin;
+            } catch (PublisherStepExecutionError e) {
+                message = e.getMessage();
+            }
+        }
+        logger.println(Messages.PublisherStepExecution_loggerLine() + " " + "Skipping " + descriptor.getName() + " in module '" + module + "': " + message);
+        return null;
+    }
+
     /**
      * Get plugins from paths
      *
@@ -227,14 +449,27 @@ public class PublisherStepExecution {
     protected List<Map<String, String>> getPluginsFromPaths() throws PublisherStepExecutionError {
         List<Map<String, String>> plugins = new ArrayList<Map<String, String>>();
         logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_autoDetectionDisabled());
+        List<String> commands = new ArrayList<String>();
         for (PublisherPath path : paths) {
-            MatchResult nameAndVersion = getNameAndVersion(path.getPath());
-            Map<String, String> aPlugin = pluginsList.get(nameAndVersion.group(1));
-            if (aPlugin == null) {
+            commands.add(path.getPath());
+        }
+        try {
+            discover(getManifestFiles(), commands, false);
+        } catch (IOException e) {
+            e.printStackTrace();
+            logger.println("IOException!");
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            logger.println("InterruptedException!");
+        }
+        for (PublisherPath path : paths) {
+            MatchResult nameAndVersion = getNameAndVersion(PublisherPluginRegistry.getShared().get(PublisherPluginRegistry.DEFAULT_PLUGIN), "", path.getPath());
+            PublisherPluginDescriptor descriptor = PublisherPluginRegistry.getShared().get(nameAndVersion.group(1));
+            if (descriptor == null) {
                 logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_cantFindPlugin());
-                aPlugin = pluginsList.get("default_plugin");
+                descriptor = PublisherPluginRegistry.getShared().get(PublisherPluginRegistry.DEFAULT_PLUGIN);
             }
-            Map<String, String> plugin = new HashMap<String, String>(aPlugin);
+            Map<String, String> plugin = descriptor.toPlugin(descriptor.getFile());
             plugin.put("command", path.getPath());
             plugin.put("name", nameAndVersion.group(1));
             plugin.put("version_installed", nameAndVersion.group(2));
@@ -254,7 +489,7 @@ public class PublisherStepExecution {
     }
 
     /**
-     * Check plugins versions
+     * Check plugins versions against the supported ranges of the registry
      *
      * @param plugins plugins
      * @throws PublisherStepExecutionError PublisherStepExecutionError
@@ -262,8 +497,9 @@ public class PublisherStepExecution {
     protected void checkPluginsVersions(List<Map<String, String>> plugins) throws PublisherStepExecutionError {
         StringBuilder messageBuilder = new StringBuilder();
         for (Map<String, String> plugin : plugins) {
-            if (plugin.get("version_installed").compareTo(plugin.get("version")) < 0) {
-                messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + Messages.PublisherStepExecution_upgradeYourVersion(plugin.get("name"), plugin.get("version")));
+            PublisherPluginDescriptor descriptor = PublisherPluginRegistry.getShared().getOrDefault(plugin.get("name"));
+            if (!descriptor.isSupported(plugin.get("version_installed"))) {
+                messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + Messages.PublisherStepExecution_upgradeYourVersion(plugin.get("name"), descriptor.getVersions().toString()));
             }
         }
         if (messageBuilder.length() != 0) {
@@ -283,38 +519,244 @@ public class PublisherStepExecution {
     }
 
     /**
-     * Run plugins
+     * Get plugin logger, prefixing every line with plugin name
+     *
+     * @param plugin plugin
+     * @return logger
+     */
+    protected PrintStream getPluginLogger(Map<String, String> plugin) {
+        String prefix = Messages.PublisherStepExecution_loggerLine() + " [" + plugin.get("name") + (plugin.get("module") != null ? " " + plugin.get("module") : "") + "] ";
+        try {
+            return new PrintStream(new PublisherPrefixedStream(logger, prefix), false, "utf-8");
+        } catch (UnsupportedEncodingException e) {
+            return new PrintStream(new PublisherPrefixedStream(logger, prefix), false);
+        }
+    }
+
+    /**
+     * Get scan cache name, one per plugin and module
+     *
+     * @param plugin plugin
+     * @return name
+     */
+    protected String getScanCacheName(Map<String, String> plugin) {
+        return plugin.get("module") != null ? plugin.get("name") + ":" + plugin.get("module") : plugin.get("name");
+    }
+
+    /**
+     * Get scan cache key from manifest and lock file digests, plugin version and server
+     *
+     * @param plugin plugin
+     * @return key or null if plugin has no manifest file or digests can't be computed
+     */
+    protected String getScanCacheKey(Map<String, String> plugin) {
+        if (plugin.get("file") == null) {
+            return null;
+        }
+        List<String> parts = new ArrayList<String>();
+        parts.add(getScanCacheName(plugin));
+        parts.add(plugin.get("version_installed"));
+        parts.add(credentials.getUrl());
+        parts.add(credentials.getUserName());
+        parts.add(project);
+        List<String> files = new ArrayList<String>();
+        files.add(plugin.get("file"));
+        if (plugin.get("locks") != null) {
+            files.addAll(Arrays.asList(plugin.get("locks").split(",")));
+        }
+        try {
+            for (String file : files) {
+                FilePath path = workspace.child(file);
+                boolean exists = discovery != null && discovery.isChecked(file) ? discovery.exists(file) : path.exists();
+                parts.add(file + "=" + (exists ? path.digest() : "-"));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return PublisherScanCache.computeKey(parts);
+    }
+
+    /**
+     * Run plugin
+     *
+     * @param plugin       plugin
+     * @param pluginLogger pluginLogger
+     * @return scan
+     * @throws PublisherStepExecutionError PublisherStepExecutionError
+     */
+    protected PublisherScan runPlugin(Map<String, String> plugin, PrintStream pluginLogger) throws PublisherStepExecutionError {
+        String cacheKey = SCAN_CACHE ? getScanCacheKey(plugin) : null;
+        if (cacheKey != null) {
+            String cachedScanId = PublisherScanCache.get(build.getParent()).getScanId(getScanCacheName(plugin), cacheKey);
+            if (cachedScanId != null) {
+                pluginLogger.println("Manifest files unchanged since scan " + cachedScanId + ", reusing it.");
+                if (PIPELINE_RESULTS) {
+                    getScanResultFuture(cachedScanId);
+                }
+                return new PublisherScan(cachedScanId, project, plugin);
+            }
+        }
+        PublisherPluginDescriptor descriptor = PublisherPluginRegistry.getShared().getOrDefault(plugin.get("name"));
+        FilePath pwd = getModuleDirectory(plugin.get("module"));
+        ArgumentListBuilder command = new ArgumentListBuilder();
+        command.addTokenized(plugin.get("command"));
+        command.addTokenized(descriptor.getScanArgs(credentials, project));
+        try {
+            if (plugin.get("name").equals("ecs-node-client") && pwd.child(plugin.get("command")).sibling("../../.meteor").exists()) {
+                command.addTokenized(" --meteor");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            pluginLogger.println("IOException!");
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            pluginLogger.println("InterruptedException!");
+        }
+        pluginLogger.println(Messages.PublisherStepExecution_running(command.toString()));
+        PublisherScanIdStream output = new PublisherScanIdStream(pluginLogger, descriptor);
+        try {
+            runCommand(command, output, pwd);
+        } catch (PublisherStepExecutionError e) {
+            throw new PublisherStepExecutionError(e.getMessage() + "\n" + output.getTail());
+        }
+        String scanId = output.getScanId();
+        if (scanId == null) {
+            throw new PublisherStepExecutionError(Messages.PublisherStepExecution_cantGetScanId() + "\n" + output.getTail());
+        }
+        if (PIPELINE_RESULTS) {
+            // the plugin has exited, so its scan is complete on the server side
+            getScanResultFuture(scanId);
+        }
+        if (cacheKey != null) {
+            PublisherScanCache.get(build.getParent()).put(getScanCacheName(plugin), cacheKey, scanId);
+        }
+        return new PublisherScan(scanId, project, plugin);
+    }
+
+    /**
+     * Run plugins, at most pluginConcurrency at a time. Plugins that are not parallel safe
+     * run one by one after the others.
      *
      * @param plugins plugins
      * @throws PublisherStepExecutionError PublisherStepExecutionError
      */
     protected void runPlugins(List<Map<String, String>> plugins) throws PublisherStepExecutionError {
+        List<Map<String, String>> parallel = new ArrayList<Map<String, String>>();
+        List<Map<String, String>> serial = new ArrayList<Map<String, String>>();
         for (Map<String, String> plugin : plugins) {
-            ArgumentListBuilder command = new ArgumentListBuilder();
-            command.addTokenized(plugin.get("command"));
-            command.addTokenized(String.format(plugin.get("args"), credentials.getApiToken(), credentials.getUserName(), credentials.getUrl(), project));
-            try {
-                if (plugin.get("name").equals("ecs-node-client") && workspace.child(plugin.get("command")).sibling("../../.meteor").exists()) {
-                    command.addTokenized(" --meteor");
+            if (PublisherPluginRegistry.getShared().getOrDefault(plugin.get("name")).isParallelSafe()) {
+                parallel.add(plugin);
+            } else {
+                serial.add(plugin);
+            }
+        }
+        StringBuilder messageBuilder = new StringBuilder();
+        runPlugins(parallel, pluginConcurrency, messageBuilder);
+        runPlugins(serial, 1, messageBuilder);
+        if (messageBuilder.length() != 0) {
+            throw new PublisherStepExecutionError(messageBuilder.toString());
+        }
+    }
+
+    /**
+     * Run plugins, at most concurrency at a time
+     *
+     * @param plugins        plugins
+     * @param concurrency    concurrency
+     * @param messageBuilder errors of failed plugins are appended here
+     * @throws PublisherStepExecutionError PublisherStepExecutionError if interrupted
+     */
+    private void runPlugins(List<Map<String, String>> plugins, int concurrency, StringBuilder messageBuilder) throws PublisherStepExecutionError {
+        if (plugins.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrency, plugins.size())));
+        Map<Map<String, String>, Future<PublisherScan>> futures = new LinkedHashMap<Map<String, String>, Future<PublisherScan>>();
+        List<PrintStream> pluginLoggers = new ArrayList<PrintStream>();
+        for (final Map<String, String> plugin : plugins) {
+            final PrintStream pluginLogger = getPluginLogger(plugin);
+            pluginLoggers.add(pluginLogger);
+            futures.put(plugin, executor.submit(new Callable<PublisherScan>() {
+                @Override
+                public PublisherScan call() throws PublisherStepExecutionError {
+                    return runPlugin(plugin, pluginLogger);
+                }
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Map.Entry<Map<String, String>, Future<PublisherScan>> entry : futures.entrySet()) {
+                try {
+                    PublisherScan scan = entry.getValue().get();
+                    scans.put(scan.getScanId(), scan);
+                } catch (ExecutionException e) {
+                    messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + "[" + entry.getKey().get("name") + "] " + e.getCause().getMessage());
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
-                logger.println("IOException!");
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-                logger.println("InterruptedException!");
             }
-            logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_running(command.toString()));
-            String result = runCommand(command);
-            String scanId = getScanId(result);
-            if (result == null || scanId == null) {
-                throw new PublisherStepExecutionError(Messages.PublisherStepExecution_cantGetScanId());
-            } else {
-                scans.put(scanId, new PublisherScan(scanId, project, plugin));
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new PublisherStepExecutionError(e.getMessage());
+        } finally {
+            for (PrintStream pluginLogger : pluginLoggers) {
+                pluginLogger.close();
             }
         }
     }
 
+    /**
+     * Set plugin concurrency
+     *
+     * @param pluginConcurrency max plugins running at the same time
+     */
+    public void setPluginConcurrency(int pluginConcurrency) {
+        this.pluginConcurrency = pluginConcurrency;
+    }
+
+    /**
+     * Set monorepo mode
+     *
+     * @param monorepo detect and scan modules in the whole workspace
+     */
+    public void setMonorepo(boolean monorepo) {
+        this.monorepo = monorepo;
+    }
+
+    /**
+     * Get scan result future, starting the poll on first request. Polls are started once the
+     * plugin has exited, so a poll which ended without a result isn't started again.
+     *
+     * @param scanId scanId
+     * @return future
+     */
+    protected CompletableFuture<JSONObject> getScanResultFuture(String scanId) {
+        synchronized (pendingResults) {
+            CompletableFuture<JSONObject> future = pendingResults.get(scanId);
+            if (future == null) {
+                logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_getResultsForScanId(scanId));
+                future = client.getScanResultAsync(scanId);
+                pendingResults.put(scanId, future);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Cancel result polls which are still running
+     */
+    protected void cancelPendingResults() {
+        synchronized (pendingResults) {
+            for (CompletableFuture<JSONObject> future : pendingResults.values()) {
+                future.cancel(true);
+            }
+            pendingResults.clear();
+        }
+    }
+
     /**
      * Get plugins results
      *
@@ -322,15 +764,33 @@ public class PublisherStepExecution {
      */
     protected void getPluginsResults() throws PublisherStepExecutionError {
         StringBuilder messageBuilder = new StringBuilder();
+        Map<PublisherScan, CompletableFuture<JSONObject>> futures = new LinkedHashMap<PublisherScan, CompletableFuture<JSONObject>>();
         for (Map.Entry<String, PublisherScan> entry : scans.entrySet()) {
-            String key = entry.getKey();
             PublisherScan scan = entry.getValue();
-            logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_getResultsForScanId(scan.getScanId()));
-            JSONObject scanResult = client.getScanResult(scan.getScanId());
-            if (scanResult == null) {
-                messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + Messages.PublisherStepExecution_noResultFor(scan.getScanId()));
+            futures.put(scan, getScanResultFuture(scan.getScanId()));
+        }
+        try {
+            for (Map.Entry<PublisherScan, CompletableFuture<JSONObject>> entry : futures.entrySet()) {
+                PublisherScan scan = entry.getKey();
+                JSONObject scanResult = null;
+                try {
+                    scanResult = entry.getValue().get();
+                } catch (ExecutionException e) {
+                    e.printStackTrace();
+                    logger.println(Messages.PublisherStepExecution_loggerLine() + " " + e.getCause());
+                }
+                if (scanResult == null) {
+                    PublisherScanCache.get(build.getParent()).invalidateScan(scan.getScanId());
+                    messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + Messages.PublisherStepExecution_noResultFor(scan.getScanId()));
+                }
+                scan.setResult(scanResult);
+            }
+        } catch (InterruptedException e) {
+            for (CompletableFuture<JSONObject> future : futures.values()) {
+                future.cancel(true);
             }
-            scan.setResult(scanResult);
+            Thread.currentThread().interrupt();
+            throw new PublisherStepExecutionError(e.getMessage());
         }
         if (messageBuilder.length() != 0) {
             throw new PublisherStepExecutionError(messageBuilder.toString());
@@ -346,42 +806,33 @@ public class PublisherStepExecution {
         if (!breakOptions.isAllowBreakBuild()) {
             return;
         }
-        for (Map.Entry<String, PublisherScan> entry : scans.entrySet()) {
-            String key = entry.getKey();
-            PublisherScan scan = entry.getValue();
-            JSONObject scanResult = scan.getResult().getJSONObject("statistics");
-            Integer violations, warnings;
-            if (breakOptions.isBreakOnVulnerabilities()) {
-                violations = scanResult.getJSONObject("vulnerability").getInt("violations");
-                warnings = scanResult.getJSONObject("vulnerability").getInt("warnings");
-                if (breakOptions.isBreakOnVulnerabilitiesWarningsAndCritical() && (violations > 0 || warnings > 0)) {
-                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_vulnerabilities(violations, warnings));
-                }
-                if (breakOptions.isBreakOnVulnerabilitiesCriticalHitsOnly() && violations > 0) {
-                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_vulnerabilities(violations, warnings));
-                }
+        List<String> messages;
+        try {
+            messages = breakOptions.getPolicy().evaluate(scans.values());
+        } catch (IllegalArgumentException e) {
+            throw new PublisherStepExecutionError(e.getMessage());
+        }
+        if (!messages.isEmpty()) {
+            StringBuilder messageBuilder = new StringBuilder();
+            for (String message : messages) {
+                messageBuilder.append((messageBuilder.length() == 0 ? "" : "\n") + message);
             }
-            if (breakOptions.isBreakOnLegalIssues()) {
-                violations = scanResult.getJSONObject("legal").getInt("violations");
-                warnings = scanResult.getJSONObject("legal").getInt("warnings");
-                if (breakOptions.isBreakOnLegalIssuesWarningAndViolations() && (violations > 0 || warnings > 0)) {
-                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_legal(violations, warnings));
-                }
-                if (breakOptions.isBreakOnLegalIssuesViolationsOnly() && violations > 0) {
-                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_legal(violations, warnings));
-                }
+            throw new PublisherStepExecutionError(messageBuilder.toString());
+        }
+    }
+
+    /**
+     * Has any scan a result
+     *
+     * @return boolean
+     */
+    protected boolean hasResults() {
+        for (PublisherScan scan : scans.values()) {
+            if (scan.hasResult()) {
+                return true;
             }
-//            if (breakOptions.isBreakOnViabilityIssues()) {
-//                violations = scanResult.getJSONObject("viability").getInt("violations");
-//                warnings = scanResult.getJSONObject("viability").getInt("warnings");
-//                if (breakOptions.isBreakOnViabilityIssuesAll() && (violations > 0 || warnings > 0)) {
-//                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_viability(violations, warnings));
-//                }
-//                if (breakOptions.isBreakOnViabilityIssuesStrongMismatchesOnly() && violations > 0) {
-//                    throw new PublisherStepExecutionError(Messages.PublisherStepExecution_viability(violations, warnings));
-//                }
-//            }
         }
+        return false;
     }
 
     /**
@@ -404,7 +855,15 @@ public class PublisherStepExecution {
                 build.setResult(Result.FAILURE);
             }
         } finally {
+            cancelPendingResults();
             build.addAction(new PublisherAction(build, scans));
+            PublisherBuildIndex.get(build.getParent()).add(build.getNumber(), scans);
+            if (hasResults()) {
+                PublisherTrendStore.get(build.getParent()).append(build.getNumber(), PublisherBuildIndex.sum(scans));
+            }
+            if (LOG_POOL_STATS) {
+                logger.println(Messages.PublisherStepExecution_loggerLine() + " " + RestClientPool.getShared());
+            }
             logger.println(Messages.PublisherStepExecution_loggerLine() + " " + Messages.PublisherStepExecution_finished());
         }
         return build.getResult() != Result.FAILURE;
@@ -433,6 +892,9 @@ public class PublisherStepExecution {
         this.paths = paths;
         this.credentials = credentials;
         this.breakOptions = breakOptions;
-        this.client = new RestClient(credentials, this.logger);
+        this.client = new RestClient(credentials, this.logger, RestClientPool.getShared());
+        if (KEEP_RAW_RESULTS) {
+            this.client.setRawResultStore(new PublisherScanStore(build.getRootDir()));
+        }
     }
 }
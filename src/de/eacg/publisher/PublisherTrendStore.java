@@ -0,0 +1,448 @@
+package de.eacg.ecs.publisher;
+
+import hudson.model.Job;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Append-only columnar store of ECS statistics per build.
+ * Every metric is kept in its own file of big endian ints and loaded into one int array,
+ * so trends never touch build records.
+ */
+public class PublisherTrendStore {
+    /**
+     * Directory name constant, relative to job directory
+     */
+    public static final String DIRECTORY_NAME = "ecs-trend";
+
+    /**
+     * Metric
+     */
+    public enum Metric {
+        BUILD("build"),
+        COMPONENTS("components"),
+        LICENSES("licenses"),
+        VULNERABILITY_VIOLATIONS("vulnerabilityViolations"),
+        VULNERABILITY_WARNINGS("vulnerabilityWarnings"),
+        LEGAL_VIOLATIONS("legalViolations"),
+        LEGAL_WARNINGS("legalWarnings"),
+        VIABILITY_VIOLATIONS("viabilityViolations"),
+        VIABILITY_WARNINGS("viabilityWarnings");
+
+        /**
+         * Column name
+         */
+        private final String column;
+
+        /**
+         * Get column name
+         *
+         * @return name
+         */
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param column column name
+         */
+        Metric(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Loaded stores by job directory
+     */
+    private static final Map<File, PublisherTrendStore> stores = new HashMap<File, PublisherTrendStore>();
+    /**
+     * Directory
+     */
+    private final File directory;
+    /**
+     * Columns, indexed by metric ordinal
+     */
+    private final int[][] columns = new int[Metric.values().length][];
+    /**
+     * Rows
+     */
+    private int size;
+    /**
+     * Read only, set when columns could not be loaded so appends can't misalign them
+     */
+    private boolean readOnly;
+    /**
+     * Seeded, false until an empty store was filled from the build index
+     */
+    private boolean seeded;
+
+    /**
+     * Get store of job. A store without column files yet is seeded from the build index before
+     * it is handed out, so builds from before the store existed are never skipped. Seeding may
+     * load the whole build history, so it only holds the lock of that store.
+     *
+     * @param job job
+     * @return store
+     */
+    public static PublisherTrendStore get(Job<?, ?> job) {
+        File rootDir = job.getRootDir();
+        PublisherTrendStore store;
+        synchronized (stores) {
+            store = stores.get(rootDir);
+            if (store == null) {
+                store = new PublisherTrendStore(new File(rootDir, DIRECTORY_NAME));
+                stores.put(rootDir, store);
+            }
+        }
+        store.seed(job);
+        return store;
+    }
+
+    /**
+     * Forget loaded stores of a job directory and of job directories which no longer exist
+     *
+     * @param rootDir job directory
+     */
+    static void evict(File rootDir) {
+        synchronized (stores) {
+            stores.remove(rootDir);
+            for (Iterator<File> iterator = stores.keySet().iterator(); iterator.hasNext(); ) {
+                if (!iterator.next().isDirectory()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get rows
+     *
+     * @return rows
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Append build statistics, builds already stored are ignored. The row is written to every
+     * column or, if a write fails, rolled back from all of them. A build finishing after a newer
+     * one is inserted at its place, which rewrites the column files.
+     *
+     * @param number     build number
+     * @param statistics statistics
+     */
+    public synchronized void append(int number, PublisherScanStatistics statistics) {
+        if (readOnly) {
+            return;
+        }
+        int position = Arrays.binarySearch(columns[Metric.BUILD.ordinal()], 0, size, number);
+        if (position >= 0) {
+            return;
+        }
+        int[] row = toRow(number, statistics);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+        if (-position - 1 < size) {
+            insert(-position - 1, row);
+            return;
+        }
+        try {
+            for (Metric metric : Metric.values()) {
+                DataOutputStream out = new DataOutputStream(new FileOutputStream(getFile(metric), true));
+                try {
+                    out.writeInt(row[metric.ordinal()]);
+                } finally {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (!rewrite(size)) {
+                readOnly = true;
+            }
+            return;
+        }
+        ensureCapacity(size + 1);
+        for (int i = 0; i < row.length; i++) {
+            columns[i][size] = row[i];
+        }
+        size++;
+    }
+
+    /**
+     * Insert row before position and rewrite the column files, the row is removed again if
+     * they can't be written
+     *
+     * @param position row position
+     * @param row      row indexed by metric ordinal
+     */
+    private void insert(int position, int[] row) {
+        ensureCapacity(size + 1);
+        for (int i = 0; i < columns.length; i++) {
+            System.arraycopy(columns[i], position, columns[i], position + 1, size - position);
+            columns[i][position] = row[i];
+        }
+        size++;
+        if (rewrite(size)) {
+            return;
+        }
+        size--;
+        for (int i = 0; i < columns.length; i++) {
+            System.arraycopy(columns[i], position + 1, columns[i], position, size - position);
+        }
+        if (!rewrite(size)) {
+            readOnly = true;
+        }
+    }
+
+    /**
+     * Seed empty store from the build index of the job once
+     *
+     * @param job job
+     */
+    private synchronized void seed(Job<?, ?> job) {
+        if (!seeded) {
+            seeded = true;
+            if (size == 0) {
+                seed(PublisherBuildIndex.getInitialized(job));
+            }
+        }
+    }
+
+    /**
+     * Seed empty store from build index entries, builds without results are skipped like
+     * they are when appended
+     *
+     * @param index index
+     */
+    public synchronized void seed(PublisherBuildIndex index) {
+        if (size > 0) {
+            return;
+        }
+        for (int number : index.getNumbers()) {
+            PublisherBuildIndex.Entry entry = index.getEntry(number);
+            if (entry != null && entry.getStatistics() != null) {
+                append(number, entry.getStatistics());
+            }
+        }
+    }
+
+    /**
+     * Get time of the last change
+     *
+     * @return milliseconds, 0 if nothing was stored yet
+     */
+    public synchronized long getLastModified() {
+        return getFile(Metric.BUILD).lastModified();
+    }
+
+    /**
+     * Get column copy
+     *
+     * @param metric metric
+     * @return values, one per build
+     */
+    public synchronized int[] getColumn(Metric metric) {
+        return Arrays.copyOf(columns[metric.ordinal()], size);
+    }
+
+    /**
+     * Get downsampled columns. Builds are grouped into at most maxPoints buckets,
+     * the build column keeps the last build of a bucket, metrics keep the bucket maximum so spikes stay visible.
+     *
+     * @param maxPoints max points
+     * @return columns indexed by metric ordinal
+     */
+    public synchronized int[][] getTrend(int maxPoints) {
+        int points = maxPoints <= 0 ? size : Math.min(size, maxPoints);
+        int[][] trend = new int[columns.length][points];
+        for (int point = 0; point < points; point++) {
+            int from = (int) ((long) point * size / points);
+            int to = (int) ((long) (point + 1) * size / points);
+            for (int column = 0; column < columns.length; column++) {
+                int[] values = columns[column];
+                int value = column == Metric.BUILD.ordinal() ? values[to - 1] : values[from];
+                if (column != Metric.BUILD.ordinal()) {
+                    for (int i = from + 1; i < to; i++) {
+                        value = Math.max(value, values[i]);
+                    }
+                }
+                trend[column][point] = value;
+            }
+        }
+        return trend;
+    }
+
+    /**
+     * Get trend as json, {"build":[...],"components":[...],...}
+     *
+     * @param maxPoints max points
+     * @return json
+     */
+    public String getTrendJSON(int maxPoints) {
+        int[][] trend = getTrend(maxPoints);
+        StringBuilder builder = new StringBuilder("{");
+        for (Metric metric : Metric.values()) {
+            if (metric.ordinal() > 0) {
+                builder.append(',');
+            }
+            builder.append('"').append(metric.getColumn()).append("\":[");
+            int[] values = trend[metric.ordinal()];
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(values[i]);
+            }
+            builder.append(']');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Convert statistics to row
+     *
+     * @param number     build number
+     * @param statistics statistics
+     * @return row indexed by metric ordinal
+     */
+    private static int[] toRow(int number, PublisherScanStatistics statistics) {
+        int[] row = new int[Metric.values().length];
+        row[Metric.BUILD.ordinal()] = number;
+        row[Metric.COMPONENTS.ordinal()] = statistics.getComponents();
+        row[Metric.LICENSES.ordinal()] = statistics.getLicenses();
+        row[Metric.VULNERABILITY_VIOLATIONS.ordinal()] = statistics.getVulnerabilityViolations();
+        row[Metric.VULNERABILITY_WARNINGS.ordinal()] = statistics.getVulnerabilityWarnings();
+        row[Metric.LEGAL_VIOLATIONS.ordinal()] = statistics.getLegalViolations();
+        row[Metric.LEGAL_WARNINGS.ordinal()] = statistics.getLegalWarnings();
+        row[Metric.VIABILITY_VIOLATIONS.ordinal()] = statistics.getViabilityViolations();
+        row[Metric.VIABILITY_WARNINGS.ordinal()] = statistics.getViabilityWarnings();
+        return row;
+    }
+
+    /**
+     * Get column file
+     *
+     * @param metric metric
+     * @return file
+     */
+    private File getFile(Metric metric) {
+        return new File(directory, metric.getColumn() + ".col");
+    }
+
+    /**
+     * Ensure capacity of all columns
+     *
+     * @param capacity capacity
+     */
+    private void ensureCapacity(int capacity) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].length < capacity) {
+                columns[i] = Arrays.copyOf(columns[i], Math.max(capacity, columns[i].length * 2));
+            }
+        }
+    }
+
+    /**
+     * Load columns, rows missing in any column after an interrupted append are dropped
+     */
+    private void load() {
+        int rows = Integer.MAX_VALUE;
+        for (Metric metric : Metric.values()) {
+            rows = (int) Math.min(rows, getFile(metric).length() / 4);
+        }
+        for (Metric metric : Metric.values()) {
+            int[] values = new int[Math.max(rows, 16)];
+            if (rows > 0) {
+                try {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(getFile(metric))));
+                    try {
+                        for (int i = 0; i < rows; i++) {
+                            values[i] = in.readInt();
+                        }
+                    } finally {
+                        in.close();
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    readOnly = true;
+                }
+            }
+            columns[metric.ordinal()] = values;
+        }
+        if (readOnly) {
+            size = 0;
+            return;
+        }
+        size = rows;
+        rewrite(rows);
+    }
+
+    /**
+     * Rewrite column files which don't have rows rows from the loaded columns. All of them are
+     * written to temporary files first and only then moved over the old ones.
+     *
+     * @param rows rows
+     * @return true if every column file has rows rows
+     */
+    private boolean rewrite(int rows) {
+        Map<File, File> written = new HashMap<File, File>();
+        try {
+            for (Metric metric : Metric.values()) {
+                File file = getFile(metric);
+                if (file.length() == rows * 4L) {
+                    continue;
+                }
+                File temp = new File(directory, metric.getColumn() + ".col.tmp");
+                written.put(temp, file);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+                try {
+                    int[] values = columns[metric.ordinal()];
+                    for (int i = 0; i < rows; i++) {
+                        out.writeInt(values[i]);
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+            for (Map.Entry<File, File> entry : written.entrySet()) {
+                Files.move(entry.getKey().toPath(), entry.getValue().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            for (File temp : written.keySet()) {
+                if (temp.exists() && !temp.delete()) {
+                    temp.deleteOnExit();
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param directory directory
+     */
+    private PublisherTrendStore(File directory) {
+        this.directory = directory;
+        load();
+    }
+}
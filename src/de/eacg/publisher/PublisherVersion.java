@@ -0,0 +1,225 @@
+package de.eacg.ecs.publisher;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Parsed semantic version, compared component by component as integers
+ */
+public final class PublisherVersion implements Comparable<PublisherVersion>, Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Numeric components
+     */
+    private final int[] components;
+    /**
+     * Pre-release qualifier, null for releases
+     */
+    private final String qualifier;
+    /**
+     * Original text
+     */
+    private final String text;
+
+    /**
+     * Parse version, e.g. "1.10.0", "v2.0", "0.2.0-beta.1"
+     *
+     * @param text text
+     * @return version
+     * @throws IllegalArgumentException if text contains no version
+     */
+    public static PublisherVersion parse(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Version is null");
+        }
+        String version = text.trim();
+        int start = 0;
+        while (start < version.length() && !Character.isDigit(version.charAt(start))) {
+            start++;
+        }
+        if (start == version.length()) {
+            throw new IllegalArgumentException("Invalid version: " + text);
+        }
+        int[] components = new int[4];
+        int count = 0;
+        int value = 0;
+        int i = start;
+        for (; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else if (c == '.') {
+                if (count == components.length) {
+                    components = Arrays.copyOf(components, count * 2);
+                }
+                components[count++] = value;
+                value = 0;
+            } else {
+                break;
+            }
+        }
+        if (count == components.length) {
+            components = Arrays.copyOf(components, count + 1);
+        }
+        components[count++] = value;
+        while (count > 1 && components[count - 1] == 0) {
+            count--;
+        }
+        String qualifier = null;
+        if (i < version.length() && version.charAt(i) == '-') {
+            int end = version.indexOf('+', i);
+            qualifier = version.substring(i + 1, end < 0 ? version.length() : end);
+            if (qualifier.isEmpty()) {
+                qualifier = null;
+            }
+        }
+        return new PublisherVersion(Arrays.copyOf(components, count), qualifier, version);
+    }
+
+    /**
+     * Compare
+     *
+     * @param other other
+     * @return comparison
+     */
+    @Override
+    public int compareTo(PublisherVersion other) {
+        int length = Math.max(components.length, other.components.length);
+        for (int i = 0; i < length; i++) {
+            int a = i < components.length ? components[i] : 0;
+            int b = i < other.components.length ? other.components[i] : 0;
+            if (a != b) {
+                return a < b ? -1 : 1;
+            }
+        }
+        if (qualifier == null || other.qualifier == null) {
+            return qualifier == null ? (other.qualifier == null ? 0 : 1) : -1;
+        }
+        return compareQualifiers(qualifier, other.qualifier);
+    }
+
+    /**
+     * Compare pre-release qualifiers by their dot separated identifiers as SemVer does: numeric
+     * identifiers as numbers and before alphanumeric ones, others in ASCII order, a qualifier
+     * which is a prefix of the other first. So "beta.2" comes before "beta.10".
+     *
+     * @param a qualifier
+     * @param b qualifier
+     * @return comparison
+     */
+    private static int compareQualifiers(String a, String b) {
+        String[] left = a.split("\\.", -1);
+        String[] right = b.split("\\.", -1);
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            boolean leftNumeric = isNumeric(left[i]);
+            boolean rightNumeric = isNumeric(right[i]);
+            int comparison;
+            if (leftNumeric && rightNumeric) {
+                comparison = compareNumeric(left[i], right[i]);
+            } else if (leftNumeric || rightNumeric) {
+                comparison = leftNumeric ? -1 : 1;
+            } else {
+                comparison = left[i].compareTo(right[i]);
+            }
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return left.length - right.length;
+    }
+
+    /**
+     * Is identifier made of digits only
+     *
+     * @param identifier identifier
+     * @return boolean
+     */
+    private static boolean isNumeric(String identifier) {
+        if (identifier.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compare numeric identifiers of any length by value, the text decides between equal values
+     * with different leading zeros so the order stays consistent with equals
+     *
+     * @param a digits
+     * @param b digits
+     * @return comparison
+     */
+    private static int compareNumeric(String a, String b) {
+        String left = stripLeadingZeros(a);
+        String right = stripLeadingZeros(b);
+        if (left.length() != right.length()) {
+            return left.length() - right.length();
+        }
+        int comparison = left.compareTo(right);
+        return comparison != 0 ? comparison : a.compareTo(b);
+    }
+
+    /**
+     * Strip leading zeros, keeping one digit
+     *
+     * @param digits digits
+     * @return digits
+     */
+    private static String stripLeadingZeros(String digits) {
+        int i = 0;
+        while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+            i++;
+        }
+        return digits.substring(i);
+    }
+
+    /**
+     * Check equals
+     *
+     * @param obj object
+     * @return boolean
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof PublisherVersion && compareTo((PublisherVersion) obj) == 0;
+    }
+
+    /**
+     * Return hashCode
+     *
+     * @return int
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(components) + (qualifier != null ? qualifier.hashCode() : 0);
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param components components without trailing zeros
+     * @param qualifier  qualifier
+     * @param text       text
+     */
+    private PublisherVersion(int[] components, String qualifier, String text) {
+        this.components = components;
+        this.qualifier = qualifier;
+        this.text = text;
+    }
+}
@@ -0,0 +1,110 @@
+package de.eacg.ecs.publisher;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Version range, a conjunction of comparators such as "&gt;=1.0.1 &lt;2.0.0".
+ * A bare version is a minimum, so "1.0.1" means "&gt;=1.0.1".
+ */
+public final class PublisherVersionRange implements Serializable {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Operators constant, longest first
+     */
+    private static final String[] OPERATORS = {">=", "<=", ">", "<", "="};
+    /**
+     * Operator of every comparator
+     */
+    private final String[] operators;
+    /**
+     * Version of every comparator
+     */
+    private final PublisherVersion[] versions;
+    /**
+     * Original text
+     */
+    private final String text;
+
+    /**
+     * Parse range
+     *
+     * @param text text
+     * @return range
+     * @throws IllegalArgumentException if text is invalid
+     */
+    public static PublisherVersionRange parse(String text) {
+        List<String> operators = new ArrayList<String>();
+        List<PublisherVersion> versions = new ArrayList<PublisherVersion>();
+        for (String token : text.trim().split("[\\s,]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String operator = ">=";
+            for (String candidate : OPERATORS) {
+                if (token.startsWith(candidate)) {
+                    operator = candidate;
+                    token = token.substring(candidate.length());
+                    break;
+                }
+            }
+            operators.add(operator);
+            versions.add(PublisherVersion.parse(token));
+        }
+        return new PublisherVersionRange(operators.toArray(new String[operators.size()]),
+                versions.toArray(new PublisherVersion[versions.size()]), text.trim());
+    }
+
+    /**
+     * Does range contain version
+     *
+     * @param version version
+     * @return boolean
+     */
+    public boolean contains(PublisherVersion version) {
+        for (int i = 0; i < versions.length; i++) {
+            int comparison = version.compareTo(versions[i]);
+            String operator = operators[i];
+            boolean matches;
+            if (operator.equals(">=")) {
+                matches = comparison >= 0;
+            } else if (operator.equals(">")) {
+                matches = comparison > 0;
+            } else if (operator.equals("<=")) {
+                matches = comparison <= 0;
+            } else if (operator.equals("<")) {
+                matches = comparison < 0;
+            } else {
+                matches = comparison == 0;
+            }
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param operators operators
+     * @param versions  versions
+     * @param text      text
+     */
+    private PublisherVersionRange(String[] operators, PublisherVersion[] versions, String text) {
+        this.operators = operators;
+        this.versions = versions;
+        this.text = text;
+    }
+}
@@ -0,0 +1,177 @@
+package de.eacg.ecs.publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Controller wide cache of authorization checks, keyed by url, user and token hash.
+ * Concurrent checks for the same credentials share one request. Only credentials the server
+ * rejected are cached as negative, a check failing on a network or server error isn't cached.
+ */
+public class RestAuthorizationCache {
+    /**
+     * Positive ttl constant in milliseconds
+     */
+    public static final long POSITIVE_TTL = Long.getLong(RestAuthorizationCache.class.getName() + ".positiveTtl", 300000L);
+    /**
+     * Negative ttl constant in milliseconds, for credentials rejected with 401 or 403
+     */
+    public static final long NEGATIVE_TTL = Long.getLong(RestAuthorizationCache.class.getName() + ".negativeTtl", 30000L);
+    /**
+     * Entries above which expired entries are purged
+     */
+    private static final int PURGE_THRESHOLD = 256;
+    /**
+     * Shared cache
+     */
+    private static final RestAuthorizationCache shared = new RestAuthorizationCache();
+    /**
+     * Entries
+     */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Get shared cache
+     *
+     * @return cache
+     */
+    public static RestAuthorizationCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Is authorized, answered from cache or by the client
+     *
+     * @param credentials credentials
+     * @param client      client doing the actual check
+     * @return boolean
+     */
+    public boolean isAuthorized(PublisherCredentials credentials, RestClient client) {
+        String key = getKey(credentials);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isExpired()) {
+                try {
+                    return entry.value.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                } catch (ExecutionException e) {
+                    entries.remove(key, entry);
+                    continue;
+                }
+            }
+            Entry created = new Entry();
+            boolean installed = entry == null ? entries.putIfAbsent(key, created) == null : entries.replace(key, entry, created);
+            if (!installed) {
+                continue;
+            }
+            purgeExpired();
+            try {
+                Boolean authorized = client.checkAuthorization();
+                if (authorized == null) {
+                    entries.remove(key, created);
+                    created.value.complete(false);
+                    return false;
+                }
+                created.expires = System.currentTimeMillis() + (authorized ? POSITIVE_TTL : NEGATIVE_TTL);
+                created.value.complete(authorized);
+                return authorized;
+            } catch (RuntimeException e) {
+                entries.remove(key, created);
+                created.value.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Invalidate entry for credentials
+     *
+     * @param credentials credentials
+     */
+    public void invalidate(PublisherCredentials credentials) {
+        entries.remove(getKey(credentials));
+    }
+
+    /**
+     * Invalidate all entries
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Remove expired entries once the cache grows
+     */
+    private void purgeExpired() {
+        if (entries.size() <= PURGE_THRESHOLD) {
+            return;
+        }
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isExpired()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get cache key, the token is only kept as hash
+     *
+     * @param credentials credentials
+     * @return key
+     */
+    private static String getKey(PublisherCredentials credentials) {
+        return credentials.getUrl() + "\n" + credentials.getUserName() + "\n" + sha256(credentials.getApiToken());
+    }
+
+    /**
+     * Get sha256 hex
+     *
+     * @param text text
+     * @return hex
+     */
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(String.valueOf(text).getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cache entry
+     */
+    private static final class Entry {
+        /**
+         * Value, completed once the check finishes
+         */
+        private final CompletableFuture<Boolean> value = new CompletableFuture<Boolean>();
+        /**
+         * Expiration time, unbounded while in flight
+         */
+        private volatile long expires = Long.MAX_VALUE;
+
+        /**
+         * Is expired
+         *
+         * @return boolean
+         */
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expires;
+        }
+    }
+}
@@ -1,14 +1,32 @@
 package de.eacg.ecs.publisher;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import net.sf.json.JSONObject;
 import net.sf.json.JSONArray;
-import org.apache.http.client.HttpResponseException;
+import net.sf.json.JSONException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.fluent.Request;
+import org.apache.http.client.fluent.Response;
+import org.apache.http.util.EntityUtils;
 
 /**
  * Class to do requests to ECS server
@@ -21,6 +39,20 @@ public class RestClient {
      * Api path
      */
     static private final String apiPath = "/api/v1/";
+    /**
+     * Scheduler for asynchronous requests and their retries
+     */
+    static private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+            Integer.getInteger(RestClient.class.getName() + ".asyncThreads", 4), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ecs-rest-client-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
     /**
      * Credentials
      */
@@ -29,16 +61,36 @@ public class RestClient {
      * Logger
      */
     private final PrintStream logger;
+    /**
+     * Connection pool, null to use fluent default executor
+     */
+    private final RestClientPool pool;
+    /**
+     * Store for compressed raw scan results, null to drop them
+     */
+    private volatile PublisherScanStore rawResultStore;
 
     /**
      * Constructor
      *
      * @param credentials credentials
      * @param logger      logger
+     * @param pool        pool
      */
-    RestClient(PublisherCredentials credentials, PrintStream logger) {
+    RestClient(PublisherCredentials credentials, PrintStream logger, RestClientPool pool) {
         this.credentials = credentials;
         this.logger = logger;
+        this.pool = pool;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param credentials credentials
+     * @param logger      logger
+     */
+    RestClient(PublisherCredentials credentials, PrintStream logger) {
+        this(credentials, logger, null);
     }
 
     /**
@@ -47,8 +99,7 @@ public class RestClient {
      * @param credentials credentials
      */
     RestClient(PublisherCredentials credentials) {
-        this.credentials = credentials;
-        this.logger = null;
+        this(credentials, null, null);
     }
 
     /**
@@ -58,16 +109,40 @@ public class RestClient {
      * @return JSONObject
      */
     public JSONObject getScanResult(String scanId) {
-        return get("scans/"+ scanId, 8);
+        return repeat("get", "scans/" + scanId, RestExponentialRetryPolicy.forScanResult(8), scanId);
     }
 
     /**
-     * Is authorized
+     * Get scan result asynchronously
+     *
+     * @param scanId scanId
+     * @return future completed with JSONObject or null
+     */
+    public CompletableFuture<JSONObject> getScanResultAsync(String scanId) {
+        return getAsync("scans/" + scanId, RestExponentialRetryPolicy.forScanResult(8), scanId);
+    }
+
+    /**
+     * Is authorized, answered from the shared authorization cache
      *
      * @return boolean
      */
     public Boolean isAuthorized() {
-        return get("authorization") != null;
+        return RestAuthorizationCache.getShared().isAuthorized(credentials, this);
+    }
+
+    /**
+     * Check authorization against server, bypassing the cache
+     *
+     * @return true if authorized, false if the server rejected the credentials with 401 or 403,
+     * null if the check failed for another reason like a network or server error
+     */
+    public Boolean checkAuthorization() {
+        Attempt attempt = execute(getRequest("get", "authorization"), null);
+        if (attempt.result != null) {
+            return Boolean.TRUE;
+        }
+        return attempt.statusCode == 401 || attempt.statusCode == 403 ? Boolean.FALSE : null;
     }
 
     /**
@@ -88,7 +163,93 @@ public class RestClient {
      * @return JSONObject
      */
     public JSONObject get(String path, int retryCount) {
-        return repeat("get", path, retryCount);
+        return get(path, new RestExponentialRetryPolicy(retryCount));
+    }
+
+    /**
+     * Get response from path
+     *
+     * @param path path
+     * @param retryPolicy retryPolicy
+     * @return JSONObject
+     */
+    public JSONObject get(String path, RestRetryPolicy retryPolicy) {
+        return repeat("get", path, retryPolicy, null);
+    }
+
+    /**
+     * Get response from path asynchronously, retries are scheduled instead of sleeping
+     *
+     * @param path path
+     * @param retryCount retryCount
+     * @return future completed with JSONObject or null
+     */
+    public CompletableFuture<JSONObject> getAsync(String path, int retryCount) {
+        return getAsync(path, new RestExponentialRetryPolicy(retryCount));
+    }
+
+    /**
+     * Get response from path asynchronously, retries are scheduled instead of sleeping
+     *
+     * @param path path
+     * @param retryPolicy retryPolicy
+     * @return future completed with JSONObject or null
+     */
+    public CompletableFuture<JSONObject> getAsync(String path, RestRetryPolicy retryPolicy) {
+        return getAsync(path, retryPolicy, null);
+    }
+
+    /**
+     * Get response from path asynchronously
+     *
+     * @param path path
+     * @param retryPolicy retryPolicy
+     * @param scanId read response as scan result summary of scanId, null to read whole response
+     * @return future completed with JSONObject or null
+     */
+    private CompletableFuture<JSONObject> getAsync(String path, RestRetryPolicy retryPolicy, String scanId) {
+        CompletableFuture<JSONObject> future = new CompletableFuture<JSONObject>();
+        scheduleAttempt("get", path, retryPolicy, scanId, 0, System.currentTimeMillis(), 0, future);
+        return future;
+    }
+
+    /**
+     * Schedule attempt
+     *
+     * @param type get post head put patch trace delete options
+     * @param path path
+     * @param retryPolicy retryPolicy
+     * @param scanId scanId for scan result summary or null
+     * @param tries failed tries so far
+     * @param started time of first attempt
+     * @param delay delay in milliseconds
+     * @param future future to complete
+     */
+    private void scheduleAttempt(final String type, final String path, final RestRetryPolicy retryPolicy, final String scanId, final int tries,
+                                 final long started, long delay, final CompletableFuture<JSONObject> future) {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    Attempt attempt = execute(getRequest(type, path), scanId);
+                    if (attempt.result != null) {
+                        future.complete(attempt.result);
+                        return;
+                    }
+                    long nextDelay = nextDelay(retryPolicy, attempt, tries + 1, started);
+                    if (nextDelay < 0) {
+                        future.complete(null);
+                        return;
+                    }
+                    scheduleAttempt(type, path, retryPolicy, scanId, tries + 1, started, nextDelay, future);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -96,28 +257,49 @@ public class RestClient {
      *
      * @param type get post head put patch trace delete options
      * @param path path
-     * @return
+     * @param retryPolicy retryPolicy
+     * @param scanId scanId for scan result summary or null
+     * @return JSONObject
      */
-    private final JSONObject repeat(String type, String path, int retryCount) {
-        JSONObject result = null;
+    private final JSONObject repeat(String type, String path, RestRetryPolicy retryPolicy, String scanId) {
+        long started = System.currentTimeMillis();
         int tries = 0;
-        while (result == null && tries < retryCount) {
-            result = processRequest(getRequest(type, path));
-            if(result != null){
-                return result;
+        while (true) {
+            Attempt attempt = execute(getRequest(type, path), scanId);
+            if (attempt.result != null) {
+                return attempt.result;
             }
             tries++;
-            if (tries < retryCount) {
-                logger.println(Messages.RestClient_loggerLine() + " Attempt " + tries + " failed... waiting");
-                try {
-                    Thread.sleep(1000 * tries);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+            long delay = nextDelay(retryPolicy, attempt, tries, started);
+            if (delay < 0) {
+                return null;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
             }
         }
-        return null;
     }
+
+    /**
+     * Ask policy for delay before next attempt and log it
+     *
+     * @param retryPolicy retryPolicy
+     * @param attempt failed attempt
+     * @param tries failed tries so far
+     * @param started time of first attempt
+     * @return delay in milliseconds, negative to give up
+     */
+    private long nextDelay(RestRetryPolicy retryPolicy, Attempt attempt, int tries, long started) {
+        long delay = retryPolicy.nextDelay(tries, attempt.statusCode, attempt.retryAfter, System.currentTimeMillis() - started);
+        if (delay >= 0 && logger != null) {
+            logger.println(Messages.RestClient_loggerLine() + " Attempt " + tries + " failed... waiting " + delay + " ms");
+        }
+        return delay;
+    }
+
     /**
      * Process request
      *
@@ -125,18 +307,140 @@ public class RestClient {
      * @return JSONObject
      */
     private JSONObject processRequest(Request request) {
+        return execute(request, null).result;
+    }
+
+    /**
+     * Execute request
+     *
+     * @param request request
+     * @param scanId read response as scan result summary of scanId, null to read whole response
+     * @return Attempt
+     */
+    private Attempt execute(Request request, final String scanId) {
         try {
-            return jsonToObject(request.execute().returnContent().asString());
-            // will it to rewrite it to buffer
-        } catch (HttpResponseException e) {
-            if (logger != null)
-                logger.println(Messages.RestClient_loggerLine() + " " + e.getStatusCode() + " " + e.getMessage());
-            return null;
+            Response response = pool != null ? pool.execute(request) : request.execute();
+            return response.handleResponse(new ResponseHandler<Attempt>() {
+                @Override
+                public Attempt handleResponse(HttpResponse httpResponse) throws IOException {
+                    Attempt attempt = new Attempt();
+                    StatusLine statusLine = httpResponse.getStatusLine();
+                    attempt.statusCode = statusLine.getStatusCode();
+                    if (attempt.statusCode >= 300) {
+                        attempt.retryAfter = getRetryAfter(httpResponse);
+                        if (logger != null)
+                            logger.println(Messages.RestClient_loggerLine() + " " + attempt.statusCode + " " + statusLine.getReasonPhrase());
+                        return attempt;
+                    }
+                    HttpEntity entity = httpResponse.getEntity();
+                    try {
+                        if (scanId != null && entity != null) {
+                            attempt.result = readScanResult(entity.getContent(), scanId);
+                        } else {
+                            attempt.result = jsonToObject(entity != null ? EntityUtils.toString(entity, StandardCharsets.UTF_8) : "");
+                        }
+                    } catch (JSONException e) {
+                        attempt.result = null;
+                    }
+                    if (attempt.result == null) {
+                        // a body that can't be parsed is retried like a failure without response
+                        attempt.statusCode = RestRetryPolicy.NO_RESPONSE;
+                        if (logger != null)
+                            logger.println(Messages.RestClient_loggerLine() + " " + statusLine.getStatusCode() + " unreadable response");
+                    }
+                    return attempt;
+                }
+            });
         } catch (IOException e) {
             if (logger != null)
                 logger.println(Messages.RestClient_loggerLine() + " " + e.getMessage());
-            return null;
+            return new Attempt();
+        }
+    }
+
+    /**
+     * Read scan result summary, keeping a compressed copy of the raw payload if rawResultStore is set.
+     * The copy is only stored once the payload was parsed.
+     *
+     * @param in input
+     * @param scanId scanId
+     * @return JSONObject
+     * @throws IOException IOException
+     */
+    private JSONObject readScanResult(InputStream in, String scanId) throws IOException {
+        if (rawResultStore == null) {
+            return PublisherScanResultReader.read(in, null);
+        }
+        OutputStream raw = rawResultStore.open(scanId);
+        JSONObject result = null;
+        boolean closed = false;
+        try {
+            result = PublisherScanResultReader.read(in, raw);
+            raw.close();
+            closed = true;
+        } finally {
+            if (!closed) {
+                try {
+                    raw.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (!closed || result == null) {
+                rawResultStore.discard(scanId);
+            }
+        }
+        if (result != null) {
+            rawResultStore.commit(scanId);
         }
+        return result;
+    }
+
+    /**
+     * Set store for compressed raw scan results, null to drop them
+     *
+     * @param rawResultStore rawResultStore
+     */
+    public void setRawResultStore(PublisherScanStore rawResultStore) {
+        this.rawResultStore = rawResultStore;
+    }
+
+    /**
+     * Get Retry-After header in milliseconds, delta seconds or http date
+     *
+     * @param response response
+     * @return milliseconds, negative if absent or invalid
+     */
+    private static long getRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+
+    /**
+     * Outcome of a single request
+     */
+    private static final class Attempt {
+        /**
+         * Result, null on failure
+         */
+        private JSONObject result;
+        /**
+         * Status code or RestRetryPolicy.NO_RESPONSE
+         */
+        private int statusCode = RestRetryPolicy.NO_RESPONSE;
+        /**
+         * Retry-After in milliseconds, negative if absent
+         */
+        private long retryAfter = -1;
     }
 
     /**
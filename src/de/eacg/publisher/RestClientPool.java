@@ -0,0 +1,157 @@
+package de.eacg.ecs.publisher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.client.fluent.Response;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Pooled keep-alive transport shared by RestClient instances
+ */
+public class RestClientPool implements Closeable {
+    /**
+     * Default max total connections
+     */
+    public static final int DEFAULT_MAX_TOTAL = Integer.getInteger(RestClientPool.class.getName() + ".maxTotal", 50);
+    /**
+     * Default max connections per route
+     */
+    public static final int DEFAULT_MAX_PER_ROUTE = Integer.getInteger(RestClientPool.class.getName() + ".maxPerRoute", 20);
+    /**
+     * Default keep alive in milliseconds
+     */
+    public static final long DEFAULT_KEEP_ALIVE = Long.getLong(RestClientPool.class.getName() + ".keepAlive", 30000L);
+    /**
+     * Default max idle time in milliseconds
+     */
+    public static final long DEFAULT_MAX_IDLE = Long.getLong(RestClientPool.class.getName() + ".maxIdle", 60000L);
+    /**
+     * Shared pool
+     */
+    private static RestClientPool shared;
+    /**
+     * Connection manager
+     */
+    private final PoolingHttpClientConnectionManager connectionManager;
+    /**
+     * Http client
+     */
+    private final CloseableHttpClient httpClient;
+    /**
+     * Fluent executor bound to the http client
+     */
+    private final Executor executor;
+
+    /**
+     * Get shared pool, created with default settings on first use
+     *
+     * @return pool
+     */
+    public static synchronized RestClientPool getShared() {
+        if (shared == null) {
+            shared = new RestClientPool(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE, DEFAULT_MAX_IDLE);
+        }
+        return shared;
+    }
+
+    /**
+     * Execute request through the pool
+     *
+     * @param request request
+     * @return Response
+     * @throws ClientProtocolException ClientProtocolException
+     * @throws IOException             IOException
+     */
+    public Response execute(Request request) throws ClientProtocolException, IOException {
+        return executor.execute(request);
+    }
+
+    /**
+     * Get total pool statistics
+     *
+     * @return statistics
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Get pool statistics per route
+     *
+     * @return statistics by route
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<String, PoolStats>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+
+    /**
+     * Summary of total and per route statistics, logged per build
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("connection pool ").append(getTotalStats());
+        for (Map.Entry<String, PoolStats> entry : getRouteStats().entrySet()) {
+            builder.append(", ").append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Close pool and all its connections
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxTotal    max total connections
+     * @param maxPerRoute max connections per route
+     * @param keepAlive   keep alive in milliseconds, used when server sends no Keep-Alive header or a longer one
+     * @param maxIdle     idle connections older than this are evicted, in milliseconds
+     */
+    public RestClientPool(int maxTotal, int maxPerRoute, final long keepAlive, long maxIdle) {
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        this.connectionManager.setMaxTotal(maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        this.connectionManager.setValidateAfterInactivity(2000);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+                    @Override
+                    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                        long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+                    }
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdle, TimeUnit.MILLISECONDS)
+                .build();
+        this.executor = Executor.newInstance(httpClient);
+    }
+}
@@ -0,0 +1,137 @@
+package de.eacg.ecs.publisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter, honouring Retry-After and an overall deadline. The delay
+ * before attempt n + 1 is drawn between a floor of n times the floor delay and the exponential
+ * ceiling; with a floor delay of 0 this is full jitter.
+ */
+public class RestExponentialRetryPolicy implements RestRetryPolicy {
+    /**
+     * Retryable status codes constant, 404 means the scan is not ready yet
+     */
+    public static final Set<Integer> RETRYABLE_STATUS_CODES = Collections.unmodifiableSet(new HashSet<Integer>(
+            Arrays.asList(NO_RESPONSE, 404, 408, 425, 429, 500, 502, 503, 504)));
+    /**
+     * Default base delay constant
+     */
+    public static final long DEFAULT_BASE_DELAY = 1000L;
+    /**
+     * Default max delay constant
+     */
+    public static final long DEFAULT_MAX_DELAY = 10000L;
+    /**
+     * Default deadline constant
+     */
+    public static final long DEFAULT_DEADLINE = 60000L;
+    /**
+     * Scan result deadline constant, leaves room for the linear floor of 8 attempts and their requests
+     */
+    public static final long SCAN_RESULT_DEADLINE = 120000L;
+    /**
+     * Max attempts
+     */
+    private final int maxAttempts;
+    /**
+     * Base delay
+     */
+    private final long baseDelay;
+    /**
+     * Max delay
+     */
+    private final long maxDelay;
+    /**
+     * Floor delay per failed attempt
+     */
+    private final long floorDelay;
+    /**
+     * Deadline since first attempt
+     */
+    private final long deadline;
+    /**
+     * Retryable status codes
+     */
+    private final Set<Integer> retryableStatusCodes;
+
+    /**
+     * Is status code retryable
+     *
+     * @param statusCode status code
+     * @return boolean
+     */
+    public boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Get delay before next attempt
+     *
+     * @param attempt    number of failed attempts so far, starting with 1
+     * @param statusCode status code of last attempt or NO_RESPONSE
+     * @param retryAfter Retry-After of last attempt in milliseconds, negative if absent
+     * @param elapsed    milliseconds since first attempt
+     * @return delay in milliseconds, negative to give up
+     */
+    @Override
+    public long nextDelay(int attempt, int statusCode, long retryAfter, long elapsed) {
+        if (attempt >= maxAttempts || !isRetryable(statusCode)) {
+            return -1;
+        }
+        long delay;
+        if (retryAfter >= 0) {
+            delay = retryAfter;
+        } else {
+            long ceiling = baseDelay << Math.min(attempt - 1, 30);
+            ceiling = ceiling <= 0 || ceiling > maxDelay ? maxDelay : ceiling;
+            long floor = floorDelay * attempt;
+            ceiling = Math.max(ceiling, floor);
+            delay = floor + ThreadLocalRandom.current().nextLong(ceiling - floor + 1);
+        }
+        return elapsed + delay > deadline ? -1 : delay;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxAttempts          max attempts
+     * @param baseDelay            base delay in milliseconds
+     * @param maxDelay             max delay in milliseconds
+     * @param floorDelay           floor delay per failed attempt in milliseconds, 0 for full jitter
+     * @param deadline             deadline since first attempt in milliseconds
+     * @param retryableStatusCodes retryable status codes
+     */
+    public RestExponentialRetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long floorDelay, long deadline, Set<Integer> retryableStatusCodes) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.floorDelay = floorDelay;
+        this.deadline = deadline;
+        this.retryableStatusCodes = retryableStatusCodes;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxAttempts max attempts
+     */
+    public RestExponentialRetryPolicy(int maxAttempts) {
+        this(maxAttempts, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, 0, DEFAULT_DEADLINE, RETRYABLE_STATUS_CODES);
+    }
+
+    /**
+     * Get policy for polling scan results: never waits less than the linear 1 s, 2 s, ... schedule
+     * of the original client, so a scan that needed 28 s to appear still does
+     *
+     * @param maxAttempts max attempts
+     * @return policy
+     */
+    public static RestExponentialRetryPolicy forScanResult(int maxAttempts) {
+        return new RestExponentialRetryPolicy(maxAttempts, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_BASE_DELAY,
+                SCAN_RESULT_DEADLINE, RETRYABLE_STATUS_CODES);
+    }
+}
@@ -0,0 +1,22 @@
+package de.eacg.ecs.publisher;
+
+/**
+ * Retry policy used by RestClient
+ */
+public interface RestRetryPolicy {
+    /**
+     * Status code used for failures without usable http response, e.g. IO errors or unparsable bodies
+     */
+    int NO_RESPONSE = 0;
+
+    /**
+     * Get delay before next attempt
+     *
+     * @param attempt    number of failed attempts so far, starting with 1
+     * @param statusCode status code of last attempt or NO_RESPONSE
+     * @param retryAfter Retry-After of last attempt in milliseconds, negative if absent
+     * @param elapsed    milliseconds since first attempt
+     * @return delay in milliseconds, negative to give up
+     */
+    long nextDelay(int attempt, int statusCode, long retryAfter, long elapsed);
+}
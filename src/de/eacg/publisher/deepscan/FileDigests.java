@@ -0,0 +1,633 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SHA-1 digests of every file below a root, kept across runs in a state file keyed by relative
+ * path, size and modification time. An update stats the tree and rehashes only new and changed
+ * files, in parallel with a direct buffer per worker. The sorted digests are kept as a counted
+ * multiset, so the SPDX package verification code needs no sort and is recomputed only when a
+ * digest changed.
+ */
+public class FileDigests {
+    /**
+     * Bytes read at once when hashing
+     */
+    public static final int CHUNK_BYTES = Integer.getInteger(FileDigests.class.getName() + ".chunkBytes", 64 * 1024);
+    /**
+     * Files modified less than this before they were hashed are hashed again next time, the
+     * modification time may not have ticked for a write that followed the hash
+     */
+    private static final long RACY_MILLIS = 2000;
+    /**
+     * Files per task
+     */
+    private static final int BATCH = 64;
+    /**
+     * First line of the state file
+     */
+    private static final String MAGIC = "# ts-deepscan file digests 1";
+
+    /**
+     * Root
+     */
+    private final Path root;
+    /**
+     * State file, null if not persisted
+     */
+    private final Path stateFile;
+    /**
+     * Entries by relative path
+     */
+    private final SortedMap<String, Entry> entries = new TreeMap<String, Entry>();
+    /**
+     * Digest multiset, sorted
+     */
+    private final TreeMap<String, Integer> sorted = new TreeMap<String, Integer>();
+    /**
+     * Relative paths left out of the verification code
+     */
+    private final Set<String> excluded = new HashSet<String>();
+    /**
+     * Verification code, null if a digest changed since it was computed
+     */
+    private String verificationCode;
+    /**
+     * Entries changed since the state file was written
+     */
+    private boolean dirty;
+    /**
+     * Files hashed by the last update
+     */
+    private int hashed;
+    /**
+     * Files reused by the last update
+     */
+    private int reused;
+    /**
+     * Files gone since the previous update
+     */
+    private int removed;
+    /**
+     * Files that couldn't be read by the last update
+     */
+    private final AtomicLong errors = new AtomicLong();
+    /**
+     * Bytes hashed by the last update
+     */
+    private final AtomicLong bytesHashed = new AtomicLong();
+    /**
+     * Sha1 digest per worker
+     */
+    private final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            return newSha1();
+        }
+    };
+    /**
+     * Read buffer per worker
+     */
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(CHUNK_BYTES);
+        }
+    };
+
+    /**
+     * Open digests of a tree, loading the state file if it exists
+     *
+     * @param root      root directory
+     * @param stateFile state file or null
+     * @return digests
+     * @throws IOException IOException
+     */
+    public static FileDigests open(Path root, Path stateFile) throws IOException {
+        FileDigests digests = new FileDigests(root, stateFile);
+        if (stateFile != null && Files.isRegularFile(stateFile)) {
+            digests.load();
+        }
+        return digests;
+    }
+
+    /**
+     * Exclude file from the digests and the verification code, like the SPDX document itself.
+     * Updates don't hash it.
+     *
+     * @param file file below the root
+     */
+    public void exclude(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        if (path.startsWith(root)) {
+            String relative = toRelative(path);
+            Entry entry = excluded.contains(relative) ? null : entries.remove(relative);
+            if (entry != null) {
+                removeDigest(entry);
+                dirty = true;
+            }
+            excluded.add(relative);
+        }
+    }
+
+    /**
+     * Bring the digests up to date with the tree. Unchanged files keep their digest, new and
+     * changed files are hashed on the pool. Files and directories that can't be read keep their
+     * previous digests and count as errors, so the digests of such an update are incomplete.
+     *
+     * @param pool pool
+     * @throws IOException IOException
+     */
+    public void update(ForkJoinPool pool) throws IOException {
+        hashed = 0;
+        reused = 0;
+        removed = 0;
+        errors.set(0);
+        bytesHashed.set(0);
+        final Set<String> seen = new HashSet<String>();
+        final List<String> failed = new ArrayList<String>();
+        final List<Entry> changed = new ArrayList<Entry>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                Path name = dir.getFileName();
+                return !dir.equals(root) && name != null && TreeScanner.IGNORED.contains(name.toString())
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String path = toRelative(file);
+                if (excluded.contains(path)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                seen.add(path);
+                long modified = attrs.lastModifiedTime().toMillis();
+                Entry entry = entries.get(path);
+                if (entry != null && entry.sha1 != null && entry.size == attrs.size() && entry.modified == modified) {
+                    reused++;
+                } else {
+                    Entry next = new Entry();
+                    next.path = path;
+                    next.size = attrs.size();
+                    next.modified = modified;
+                    changed.add(next);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                errors.incrementAndGet();
+                failed.add(toRelative(file));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (!seen.contains(entry.path) && !isBelow(entry.path, failed)) {
+                iterator.remove();
+                removeDigest(entry);
+                removed++;
+            }
+        }
+        if (!changed.isEmpty()) {
+            pool.invoke(new HashTask(changed));
+        }
+        for (Entry entry : changed) {
+            if (entry.sha1 == null) {
+                continue;
+            }
+            Entry previous = entries.put(entry.path, entry);
+            if (previous != null) {
+                removeDigest(previous);
+            }
+            addDigest(entry);
+            hashed++;
+        }
+        dirty |= removed > 0 || !changed.isEmpty();
+    }
+
+    /**
+     * Write the state file if anything changed, replaced atomically
+     *
+     * @throws IOException IOException
+     */
+    public void save() throws IOException {
+        if (stateFile == null || !dirty) {
+            return;
+        }
+        Path parent = stateFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+        try {
+            writer.write(MAGIC);
+            writer.newLine();
+            for (Entry entry : entries.values()) {
+                writer.write(entry.sha1);
+                writer.write(' ');
+                writer.write(Long.toString(entry.size));
+                writer.write(' ');
+                writer.write(Long.toString(entry.modified));
+                writer.write(' ');
+                writer.write(entry.path);
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+        Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * Get SPDX package verification code: sha1 of the sorted hex digests of all files not
+     * excluded, concatenated
+     *
+     * @return hex sha1
+     */
+    public String getVerificationCode() {
+        if (verificationCode == null) {
+            MessageDigest digest = newSha1();
+            for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+                byte[] bytes = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+                for (int i = 0; i < entry.getValue(); i++) {
+                    digest.update(bytes);
+                }
+            }
+            verificationCode = ResultCache.toHex(digest.digest());
+        }
+        return verificationCode;
+    }
+
+    /**
+     * Compute SPDX package verification code of any digests
+     *
+     * @param sha1s hex sha1 per file
+     * @return hex sha1
+     */
+    public static String computeVerificationCode(Collection<String> sha1s) {
+        List<String> list = new ArrayList<String>(sha1s.size());
+        for (String sha1 : sha1s) {
+            list.add(sha1.toLowerCase());
+        }
+        Collections.sort(list);
+        MessageDigest digest = newSha1();
+        for (String sha1 : list) {
+            digest.update(sha1.getBytes(StandardCharsets.US_ASCII));
+        }
+        return ResultCache.toHex(digest.digest());
+    }
+
+    /**
+     * Get digests by relative path, in path order
+     *
+     * @return hex sha1 by path
+     */
+    public SortedMap<String, String> getDigests() {
+        SortedMap<String, String> result = new TreeMap<String, String>();
+        for (Entry entry : entries.values()) {
+            result.put(entry.path, entry.sha1);
+        }
+        return result;
+    }
+
+    /**
+     * Get excluded files, in path order
+     *
+     * @return relative paths
+     */
+    public SortedSet<String> getExcluded() {
+        return new TreeSet<String>(excluded);
+    }
+
+    /**
+     * Is the relative path left out of the verification code
+     *
+     * @param path relative path
+     * @return boolean
+     */
+    public boolean isExcluded(String path) {
+        return excluded.contains(path);
+    }
+
+    /**
+     * Get root
+     *
+     * @return root
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Get files hashed by the last update
+     *
+     * @return count
+     */
+    public int getHashed() {
+        return hashed;
+    }
+
+    /**
+     * Get files reused by the last update
+     *
+     * @return count
+     */
+    public int getReused() {
+        return reused;
+    }
+
+    /**
+     * Get files gone since the previous update
+     *
+     * @return count
+     */
+    public int getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Get files that couldn't be read by the last update
+     *
+     * @return count
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Get bytes hashed by the last update
+     *
+     * @return bytes
+     */
+    public long getBytesHashed() {
+        return bytesHashed.get();
+    }
+
+    /**
+     * Summary of the last update
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return String.format("digests: %d files, %d hashed (%.1f MB), %d reused, %d removed, %d errors",
+                entries.size(), hashed, bytesHashed.get() / 1048576.0, reused, removed, errors.get());
+    }
+
+    /**
+     * Is the relative path one of the paths or below one of them
+     *
+     * @param path  relative path
+     * @param paths relative paths
+     * @return boolean
+     */
+    private static boolean isBelow(String path, List<String> paths) {
+        for (String parent : paths) {
+            if (parent.isEmpty() || path.equals(parent) || path.startsWith(parent + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hash file with the worker's direct buffer
+     *
+     * @param entry entry, sha1 is set on success
+     */
+    private void hash(Entry entry) {
+        Path file = root.resolve(entry.path);
+        MessageDigest digest = digests.get();
+        digest.reset();
+        ByteBuffer buffer = buffers.get();
+        long started = System.currentTimeMillis();
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = 0;
+                while (true) {
+                    buffer.clear();
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    digest.update(buffer);
+                    size += read;
+                }
+                bytesHashed.addAndGet(size);
+                entry.size = size;
+            } finally {
+                channel.close();
+            }
+            entry.sha1 = ResultCache.toHex(digest.digest());
+            if (entry.modified + RACY_MILLIS > started) {
+                entry.modified = -1;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Add digest of entry to the multiset unless it is excluded
+     *
+     * @param entry entry
+     */
+    private void addDigest(Entry entry) {
+        if (excluded.contains(entry.path)) {
+            return;
+        }
+        String sha1 = entry.sha1;
+        Integer count = sorted.get(sha1);
+        sorted.put(sha1, count == null ? 1 : count + 1);
+        verificationCode = null;
+    }
+
+    /**
+     * Remove digest of entry from the multiset unless it is excluded
+     *
+     * @param entry entry
+     */
+    private void removeDigest(Entry entry) {
+        Integer count = excluded.contains(entry.path) ? null : sorted.get(entry.sha1);
+        if (count == null) {
+            return;
+        }
+        String sha1 = entry.sha1;
+        if (count == 1) {
+            sorted.remove(sha1);
+        } else {
+            sorted.put(sha1, count - 1);
+        }
+        verificationCode = null;
+    }
+
+    /**
+     * Read the state file, malformed lines are skipped and rehashed
+     *
+     * @throws IOException IOException
+     */
+    private void load() throws IOException {
+        BufferedReader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8);
+        try {
+            String line = reader.readLine();
+            if (!MAGIC.equals(line)) {
+                dirty = true;
+                return;
+            }
+            while ((line = reader.readLine()) != null) {
+                int first = line.indexOf(' ');
+                int second = first > 0 ? line.indexOf(' ', first + 1) : -1;
+                int third = second > 0 ? line.indexOf(' ', second + 1) : -1;
+                if (first != 40 || third < 0) {
+                    dirty = true;
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry();
+                    entry.sha1 = line.substring(0, first);
+                    entry.size = Long.parseLong(line.substring(first + 1, second));
+                    entry.modified = Long.parseLong(line.substring(second + 1, third));
+                    entry.path = line.substring(third + 1);
+                    entries.put(entry.path, entry);
+                    addDigest(entry);
+                } catch (NumberFormatException e) {
+                    dirty = true;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Get path relative to the root with '/' separators
+     *
+     * @param file file below the root
+     * @return relative path
+     */
+    private String toRelative(Path file) {
+        String path = root.relativize(file.toAbsolutePath().normalize()).toString();
+        return path.replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Create sha1 digest
+     *
+     * @return digest
+     */
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Digest of one file
+     */
+    private static final class Entry {
+        /**
+         * Path relative to the root
+         */
+        private String path;
+        /**
+         * Size
+         */
+        private long size;
+        /**
+         * Modification time in milliseconds, -1 to hash again next time
+         */
+        private long modified;
+        /**
+         * Hex sha1, null if not hashed
+         */
+        private String sha1;
+    }
+
+    /**
+     * Hash task, splits its files in halves down to a batch
+     */
+    private final class HashTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Files
+         */
+        private final List<Entry> batch;
+
+        /**
+         * Hash files
+         */
+        @Override
+        protected void compute() {
+            if (batch.size() <= BATCH) {
+                for (Entry entry : batch) {
+                    hash(entry);
+                }
+                return;
+            }
+            int middle = batch.size() / 2;
+            invokeAll(new HashTask(batch.subList(0, middle)), new HashTask(batch.subList(middle, batch.size())));
+        }
+
+        /**
+         * Constructor
+         *
+         * @param batch files
+         */
+        private HashTask(List<Entry> batch) {
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param root      root directory
+     * @param stateFile state file or null
+     */
+    private FileDigests(Path root, Path stateFile) {
+        this.root = root.toAbsolutePath().normalize();
+        this.stateFile = stateFile;
+    }
+}
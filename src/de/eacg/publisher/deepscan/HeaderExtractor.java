@@ -0,0 +1,664 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Extracts author, copyright and license statements from the comment header of source files.
+ * The header, everything up to the first opening brace outside comments and strings, is read
+ * from a memory mapped window in a single pass over its bytes. Comment lines are classified by
+ * a hand written matcher, strings are only created for the values emitted. Author and license
+ * keywords only count as an @tag, followed by ':' or as "licensed under", so prose mentioning
+ * them isn't reported.
+ */
+public class HeaderExtractor {
+    /**
+     * Max header bytes read per file
+     */
+    public static final int MAX_HEADER = Integer.getInteger(HeaderExtractor.class.getName() + ".maxHeader", 64 * 1024);
+    /**
+     * Source extensions scanned when walking a tree
+     */
+    public static final Set<String> EXTENSIONS = new HashSet<String>(Arrays.asList(
+            "java", "kt", "scala", "groovy", "js", "jsx", "ts", "tsx", "c", "h", "cc", "cpp", "hpp", "cs", "go",
+            "php", "swift", "m", "rs", "css", "scss", "less"));
+    /**
+     * Directory names skipped when walking a tree
+     */
+    private static final Set<String> IGNORED = new HashSet<String>(Arrays.asList("node_modules", "vendor", ".git", ".svn", ".hg"));
+    /**
+     * State constants
+     */
+    private static final int CODE = 0;
+    private static final int SLASH = 1;
+    private static final int LINE_COMMENT = 2;
+    private static final int BLOCK_COMMENT = 3;
+    private static final int BLOCK_STAR = 4;
+    private static final int STRING = 5;
+    private static final int STRING_ESCAPE = 6;
+    private static final int CHAR = 7;
+    private static final int CHAR_ESCAPE = 8;
+    /**
+     * Keyword constants, lower case
+     */
+    private static final byte[] AUTHORS = bytes("authors");
+    private static final byte[] AUTHOR = bytes("author");
+    private static final byte[] AUTOR = bytes("autor");
+    private static final byte[] COPYRIGHT = bytes("copyright");
+    private static final byte[] C_SYMBOL = bytes("(c)");
+    private static final byte[] COPYRIGHT_SIGN = {(byte) 0xC2, (byte) 0xA9}; // UTF-8 copyright sign
+    private static final byte[] LICENSED = bytes("licensed");
+    private static final byte[] LICENSE = bytes("license");
+    private static final byte[] LICENCE = bytes("licence");
+    private static final byte[] UNDER = bytes("under");
+    private static final byte[] AND = bytes("and");
+
+    /**
+     * Records found
+     */
+    private final List<HeaderRecord> records = new ArrayList<HeaderRecord>();
+    /**
+     * Current comment line
+     */
+    private byte[] line = new byte[256];
+    /**
+     * Current comment line length
+     */
+    private int length;
+
+    /**
+     * Extract records from file header
+     *
+     * @param file file
+     * @return records
+     * @throws IOException IOException
+     */
+    public static List<HeaderRecord> extract(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = Math.min(channel.size(), MAX_HEADER);
+            if (size == 0) {
+                return new ArrayList<HeaderRecord>();
+            }
+            return extract(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Extract records from header bytes
+     *
+     * @param buffer buffer, read from its position
+     * @return records
+     */
+    public static List<HeaderRecord> extract(ByteBuffer buffer) {
+        HeaderExtractor extractor = new HeaderExtractor();
+        extractor.scan(buffer);
+        return extractor.records;
+    }
+
+    /**
+     * Extract records from many files in parallel
+     *
+     * @param files   files
+     * @param threads threads
+     * @return records by file, in the order given; files that can't be read are left out
+     * @throws InterruptedException InterruptedException
+     */
+    public static Map<Path, List<HeaderRecord>> extractAll(Collection<Path> files, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        Map<Path, Future<List<HeaderRecord>>> futures = new LinkedHashMap<Path, Future<List<HeaderRecord>>>();
+        try {
+            for (final Path file : files) {
+                futures.put(file, executor.submit(new Callable<List<HeaderRecord>>() {
+                    @Override
+                    public List<HeaderRecord> call() throws IOException {
+                        return extract(file);
+                    }
+                }));
+            }
+            Map<Path, List<HeaderRecord>> results = new LinkedHashMap<Path, List<HeaderRecord>>();
+            for (Map.Entry<Path, Future<List<HeaderRecord>>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Find source files below directory
+     *
+     * @param root root
+     * @return files, sorted
+     * @throws IOException IOException
+     */
+    public static List<Path> findSources(Path root) throws IOException {
+        final List<Path> files = new ArrayList<Path>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.getFileName() != null && IGNORED.contains(dir.getFileName().toString()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                if (attrs.isRegularFile() && dot >= 0 && EXTENSIONS.contains(name.substring(dot + 1).toLowerCase())) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        java.util.Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Print records of every source file below the given directories, licenses with their SPDX id
+     *
+     * @param args directories or files, defaults to the current directory
+     * @throws IOException          IOException
+     * @throws InterruptedException InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<Path>();
+        for (String arg : args.length > 0 ? args : new String[]{"."}) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                files.addAll(findSources(path));
+            } else {
+                files.add(path);
+            }
+        }
+        long started = System.nanoTime();
+        Map<Path, List<HeaderRecord>> results = extractAll(files, Runtime.getRuntime().availableProcessors());
+        long nanos = System.nanoTime() - started;
+        LicenseMatcher matcher = LicenseMatcher.getShared();
+        for (Map.Entry<Path, List<HeaderRecord>> entry : results.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            System.out.println(entry.getKey());
+            for (HeaderRecord record : entry.getValue()) {
+                String license = record.getType() == HeaderRecord.Type.LICENSE ? matcher.resolve(record.getValue(), null) : null;
+                System.out.println("  " + record + (license != null ? " -> " + license : ""));
+            }
+        }
+        System.err.println(String.format("%d files in %.1f ms", files.size(), nanos / 1e6));
+    }
+
+    /**
+     * Run the state machine until the header ends
+     *
+     * @param buffer buffer
+     */
+    private void scan(ByteBuffer buffer) {
+        int state = CODE;
+        int lineNumber = 1;
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            switch (state) {
+                case CODE:
+                    if (b == '/') {
+                        state = SLASH;
+                    } else if (b == '"') {
+                        state = STRING;
+                    } else if (b == '\'') {
+                        state = CHAR;
+                    } else if (b == '{') {
+                        return;
+                    }
+                    break;
+                case SLASH:
+                    if (b == '/') {
+                        state = LINE_COMMENT;
+                    } else if (b == '*') {
+                        state = BLOCK_COMMENT;
+                    } else if (b == '{') {
+                        return;
+                    } else {
+                        state = CODE;
+                    }
+                    break;
+                case LINE_COMMENT:
+                    if (b == '\n') {
+                        endLine(lineNumber);
+                        state = CODE;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case BLOCK_COMMENT:
+                    if (b == '*') {
+                        state = BLOCK_STAR;
+                    } else if (b == '\n') {
+                        endLine(lineNumber);
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case BLOCK_STAR:
+                    if (b == '/') {
+                        endLine(lineNumber);
+                        state = CODE;
+                    } else if (b == '*') {
+                        append((byte) '*');
+                    } else {
+                        append((byte) '*');
+                        if (b == '\n') {
+                            endLine(lineNumber);
+                        } else {
+                            append(b);
+                        }
+                        state = BLOCK_COMMENT;
+                    }
+                    break;
+                case STRING:
+                    state = b == '\\' ? STRING_ESCAPE : b == '"' || b == '\n' ? CODE : STRING;
+                    break;
+                case CHAR:
+                    state = b == '\\' ? CHAR_ESCAPE : b == '\'' || b == '\n' ? CODE : CHAR;
+                    break;
+                case STRING_ESCAPE:
+                    state = STRING;
+                    break;
+                default:
+                    state = CHAR;
+                    break;
+            }
+            if (b == '\n') {
+                lineNumber++;
+            }
+        }
+        endLine(lineNumber);
+    }
+
+    /**
+     * Append comment byte, leading blanks and the doc comment margin are dropped
+     *
+     * @param b byte
+     */
+    private void append(byte b) {
+        if (b == '\r' || (length == 0 && (b == ' ' || b == '\t' || b == '*'))) {
+            return;
+        }
+        if (length == line.length) {
+            line = Arrays.copyOf(line, length * 2);
+        }
+        line[length++] = b;
+    }
+
+    /**
+     * Classify finished comment line
+     *
+     * @param lineNumber line number
+     */
+    private void endLine(int lineNumber) {
+        int end = trimEnd(0, length);
+        length = 0;
+        if (end == 0) {
+            return;
+        }
+        boolean tag = line[0] == '@';
+        int start = tag ? 1 : 0;
+        int pos;
+        if (((pos = matchWord(start, end, AUTHORS)) >= 0 || (pos = matchWord(start, end, AUTHOR)) >= 0 || (pos = matchWord(start, end, AUTOR)) >= 0)
+                && (tag || isSeparated(pos, end))) {
+            emitList(HeaderRecord.Type.AUTHOR, skipSeparator(pos, end), end, lineNumber);
+        } else if ((pos = matchWord(start, end, COPYRIGHT)) >= 0 || (pos = matchPrefix(start, end, C_SYMBOL)) >= 0 || (pos = matchPrefix(start, end, COPYRIGHT_SIGN)) >= 0) {
+            emit(HeaderRecord.Type.COPYRIGHT, start, end, lineNumber);
+            pos = skipSeparator(pos, end);
+            int symbol = Math.max(matchPrefix(pos, end, C_SYMBOL), matchPrefix(pos, end, COPYRIGHT_SIGN));
+            emitCopyright(symbol >= 0 ? skipSeparator(symbol, end) : pos, end, lineNumber);
+        } else if ((pos = matchWord(start, end, LICENSED)) >= 0 && (pos = matchWord(skipBlanks(pos, end), end, UNDER)) >= 0) {
+            emitList(HeaderRecord.Type.LICENSE, skipSeparator(pos, end), end, lineNumber);
+        } else if (((pos = matchWord(start, end, LICENSE)) >= 0 || (pos = matchWord(start, end, LICENCE)) >= 0)
+                && (tag || isSeparated(pos, end))) {
+            pos = skipSeparator(pos, end);
+            int under = matchWord(pos, end, UNDER);
+            emitList(HeaderRecord.Type.LICENSE, under >= 0 ? skipSeparator(under, end) : pos, end, lineNumber);
+        } else if (isLicenseList(start, end)) {
+            emitList(HeaderRecord.Type.LICENSE, start, end, lineNumber);
+        }
+    }
+
+    /**
+     * Emit parts of a copyright statement: years, holders and trailing license ids
+     *
+     * @param from       from
+     * @param to         to
+     * @param lineNumber line number
+     */
+    private void emitCopyright(int from, int to, int lineNumber) {
+        boolean holder = false;
+        int partStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && line[i] != ',') {
+                continue;
+            }
+            int start = skipBlanks(partStart, i);
+            int end = trimEnd(start, i);
+            partStart = i + 1;
+            while (start < end && isYear(start, end)) {
+                int tokenEnd = start;
+                while (tokenEnd < end && line[tokenEnd] != ' ') {
+                    tokenEnd++;
+                }
+                emit(HeaderRecord.Type.YEAR, start, tokenEnd, lineNumber);
+                start = skipBlanks(tokenEnd, end);
+            }
+            if (start >= end) {
+                continue;
+            }
+            if (holder && isLicense(start, end)) {
+                emit(HeaderRecord.Type.LICENSE, start, end, lineNumber);
+            } else {
+                emit(HeaderRecord.Type.HOLDER, start, end, lineNumber);
+                holder = true;
+            }
+        }
+    }
+
+    /**
+     * Emit comma or "and" separated values
+     *
+     * @param type       type
+     * @param from       from
+     * @param to         to
+     * @param lineNumber line number
+     */
+    private void emitList(HeaderRecord.Type type, int from, int to, int lineNumber) {
+        int partStart = from;
+        for (int i = from; i <= to; i++) {
+            int next;
+            if (i == to || line[i] == ',') {
+                next = i + 1;
+            } else if (line[i] == ' ' && type == HeaderRecord.Type.AUTHOR && matchWord(i + 1, to, AND) >= 0) {
+                next = i + 1 + AND.length;
+            } else {
+                continue;
+            }
+            int start = skipBlanks(partStart, i);
+            int end = trimEnd(start, i);
+            if (end > start) {
+                emit(type, start, end, lineNumber);
+            }
+            partStart = next;
+            i = next - 1;
+        }
+    }
+
+    /**
+     * Emit record
+     *
+     * @param type       type
+     * @param from       from
+     * @param to         to
+     * @param lineNumber line number
+     */
+    private void emit(HeaderRecord.Type type, int from, int to, int lineNumber) {
+        if (to > from && line[to - 1] == '.' && type != HeaderRecord.Type.LICENSE && type != HeaderRecord.Type.COPYRIGHT) {
+            to--;
+        }
+        records.add(new HeaderRecord(type, new String(line, from, to - from, StandardCharsets.UTF_8), lineNumber));
+    }
+
+    /**
+     * Is every comma separated part a license id, e.g. "MIT, Apache-2.0"
+     *
+     * @param from from
+     * @param to   to
+     * @return boolean
+     */
+    private boolean isLicenseList(int from, int to) {
+        int partStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && line[i] != ',') {
+                continue;
+            }
+            int start = skipBlanks(partStart, i);
+            if (!isLicense(start, trimEnd(start, i))) {
+                return false;
+            }
+            partStart = i + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Does text look like a license id: an upper case id like "MIT" or "GPL-2.0",
+     * or a name followed by a version like "Apache 2.0" or "MPL 1.0"
+     *
+     * @param from from
+     * @param to   to
+     * @return boolean
+     */
+    private boolean isLicense(int from, int to) {
+        int size = to - from;
+        if (size < 2 || size > 40 || !isLetter(line[from])) {
+            return false;
+        }
+        boolean upperCase = true;
+        int upper = 0;
+        int lastSeparator = -1;
+        int separators = 0;
+        for (int i = from; i < to; i++) {
+            byte b = line[i];
+            if (b >= 'A' && b <= 'Z') {
+                upper++;
+            } else if (b == ' ' || b == '-') {
+                lastSeparator = i;
+                separators++;
+            } else if (!(b >= '0' && b <= '9') && b != '.' && b != '+') {
+                upperCase = false;
+            }
+            if (b == ' ') {
+                upperCase = false;
+            }
+        }
+        if (upperCase && upper >= 2) {
+            return true;
+        }
+        if (lastSeparator < 0 || separators > 2 || lastSeparator + 1 >= to || !(line[from] >= 'A' && line[from] <= 'Z')) {
+            return false;
+        }
+        for (int i = lastSeparator + 1; i < to; i++) {
+            if (!(line[i] >= '0' && line[i] <= '9') && line[i] != '.') {
+                return false;
+            }
+        }
+        return line[lastSeparator + 1] != '.';
+    }
+
+    /**
+     * Does text start with a year or year range, e.g. "2017" or "2015-2017"
+     *
+     * @param from from
+     * @param to   to
+     * @return boolean
+     */
+    private boolean isYear(int from, int to) {
+        int i = from;
+        if (!isYearAt(i, to)) {
+            return false;
+        }
+        i += 4;
+        if (i < to && line[i] == '-' && isYearAt(i + 1, to)) {
+            i += 5;
+        }
+        return i == to || line[i] == ' ';
+    }
+
+    /**
+     * Is there a four digit year at position
+     *
+     * @param from from
+     * @param to   to
+     * @return boolean
+     */
+    private boolean isYearAt(int from, int to) {
+        if (from + 4 > to || !((line[from] == '1' && line[from + 1] == '9') || (line[from] == '2' && line[from + 1] == '0'))) {
+            return false;
+        }
+        for (int i = from + 2; i < from + 4; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Match keyword case insensitive at position, followed by a non letter
+     *
+     * @param from    from
+     * @param to      to
+     * @param keyword lower case keyword
+     * @return position after keyword or -1
+     */
+    private int matchWord(int from, int to, byte[] keyword) {
+        int end = matchPrefix(from, to, keyword);
+        return end >= 0 && (end == to || !isLetter(line[end])) ? end : -1;
+    }
+
+    /**
+     * Match prefix case insensitive at position
+     *
+     * @param from   from
+     * @param to     to
+     * @param prefix lower case prefix
+     * @return position after prefix or -1
+     */
+    private int matchPrefix(int from, int to, byte[] prefix) {
+        if (from < 0 || from + prefix.length > to) {
+            return -1;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            byte b = line[from + i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != prefix[i]) {
+                return -1;
+            }
+        }
+        return from + prefix.length;
+    }
+
+    /**
+     * Is a keyword followed by a ':' separator, a keyword which merely starts a sentence isn't a
+     * statement
+     *
+     * @param from position after keyword
+     * @param to   to
+     * @return boolean
+     */
+    private boolean isSeparated(int from, int to) {
+        int i = skipBlanks(from, to);
+        return i < to && line[i] == ':';
+    }
+
+    /**
+     * Skip blanks and a ':' separator
+     *
+     * @param from from
+     * @param to   to
+     * @return position
+     */
+    private int skipSeparator(int from, int to) {
+        int i = skipBlanks(from, to);
+        if (i < to && line[i] == ':') {
+            i = skipBlanks(i + 1, to);
+        }
+        return i;
+    }
+
+    /**
+     * Skip blanks
+     *
+     * @param from from
+     * @param to   to
+     * @return position
+     */
+    private int skipBlanks(int from, int to) {
+        while (from < to && (line[from] == ' ' || line[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Trim blanks at end
+     *
+     * @param from from
+     * @param to   to
+     * @return end
+     */
+    private int trimEnd(int from, int to) {
+        while (to > from && (line[to - 1] == ' ' || line[to - 1] == '\t')) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Is ascii letter
+     *
+     * @param b byte
+     * @return boolean
+     */
+    private static boolean isLetter(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Get ascii bytes
+     *
+     * @param text text
+     * @return bytes
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Constructor
+     */
+    private HeaderExtractor() {
+    }
+}
@@ -0,0 +1,76 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * Author, holder, year, copyright or license statement found in a comment header
+ */
+public final class HeaderRecord {
+    /**
+     * Record type
+     */
+    public enum Type {
+        AUTHOR, HOLDER, YEAR, COPYRIGHT, LICENSE
+    }
+
+    /**
+     * Type
+     */
+    private final Type type;
+    /**
+     * Value
+     */
+    private final String value;
+    /**
+     * Line, 1 based
+     */
+    private final int line;
+
+    /**
+     * Get type
+     *
+     * @return type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get value
+     *
+     * @return value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get line
+     *
+     * @return line, 1 based
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return line + ": " + type + " " + value;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param type  type
+     * @param value value
+     * @param line  line, 1 based
+     */
+    public HeaderRecord(Type type, String value, int line) {
+        this.type = type;
+        this.value = value;
+        this.line = line;
+    }
+}
@@ -0,0 +1,263 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * License keys and long names mapped to SPDX license ids, the input of {@link LicenseMatcher}.
+ * Patterns are normalized the way the matcher reads text: lower case, every run of characters
+ * other than letters, digits, '.' and '+' collapsed to one blank. The first id added for a
+ * pattern wins.
+ */
+public class LicenseDictionary {
+    /**
+     * Built-in licenses: SPDX id, long names separated by '|', further keys
+     */
+    private static final String[][] BUILT_IN = {
+            {"0BSD", "BSD Zero Clause License|Zero-Clause BSD"},
+            {"AFL-3.0", "Academic Free License 3.0", "AFL 3.0"},
+            {"AGPL-3.0-only", "GNU Affero General Public License 3.0", "AGPL 3.0"},
+            {"AGPL-3.0-or-later", "GNU Affero General Public License 3.0 or later", "AGPL 3.0 or later"},
+            {"Apache-1.1", "Apache License 1.1|Apache Software License 1.1", "ASL 1.1"},
+            {"Apache-2.0", "Apache License 2.0|Apache Software License 2.0|Apache Public License 2.0", "ASL 2.0", "ALv2"},
+            {"APSL-2.0", "Apple Public Source License 2.0"},
+            {"Artistic-1.0", "Artistic License 1.0"},
+            {"Artistic-1.0-Perl", "Artistic License (Perl) 1.0", "Artistic-Perl-1.0"},
+            {"Artistic-2.0", "Artistic License 2.0"},
+            {"BSD-1-Clause", "BSD 1-Clause License"},
+            {"BSD-2-Clause", "BSD 2-Clause License|Simplified BSD License|FreeBSD License", "BSD-simplified"},
+            {"BSD-2-Clause-FreeBSD", "BSD-2-Clause FreeBSD License"},
+            {"BSD-2-Clause-Patent", "BSD-2-Clause Plus Patent License|BSD-2-Clause Plus Patent", "BSD-plus-patent"},
+            {"BSD-3-Clause", "BSD 3-Clause License|New BSD License|Modified BSD License|Revised BSD License", "BSD-new"},
+            {"BSD-3-Clause-Clear", "Clear BSD License", "Clear-BSD"},
+            {"BSD-4-Clause", "BSD 4-Clause License|Original BSD License", "BSD-original"},
+            {"BSD-4-Clause-UC", "BSD-4-Clause (University of California-Specific)", "BSD-original-UC"},
+            {"BSL-1.0", "Boost Software License 1.0", "Boost 1.0"},
+            {"bzip2-1.0.6", "bzip2 and libbzip2 License v1.0.6|bzip2 License 2010"},
+            {"CC-BY-3.0", "Creative Commons Attribution 3.0|Creative Commons Attribution License 3.0"},
+            {"CC-BY-4.0", "Creative Commons Attribution 4.0|Creative Commons Attribution 4.0 International"},
+            {"CC-BY-SA-3.0", "Creative Commons Attribution Share Alike 3.0|Creative Commons Attribution-ShareAlike 3.0"},
+            {"CC-BY-SA-4.0", "Creative Commons Attribution Share Alike 4.0|Creative Commons Attribution-ShareAlike 4.0 International"},
+            {"CC0-1.0", "Creative Commons Zero v1.0 Universal|Creative Commons CC0 1.0 Universal", "CC0"},
+            {"CDDL-1.0", "Common Development and Distribution License 1.0", "CDDL"},
+            {"CDDL-1.1", "Common Development and Distribution License 1.1"},
+            {"CPL-1.0", "Common Public License 1.0"},
+            {"ECL-2.0", "Educational Community License 2.0"},
+            {"EPL-1.0", "Eclipse Public License 1.0"},
+            {"EPL-2.0", "Eclipse Public License 2.0"},
+            {"EUPL-1.1", "European Union Public License 1.1"},
+            {"EUPL-1.2", "European Union Public License 1.2"},
+            {"FSFAP", "FSF All Permissive License"},
+            {"FSFUL", "FSF Unlimited License|Free Software Foundation - Free Software License"},
+            {"GFDL-1.2-only", "GNU Free Documentation License 1.2"},
+            {"GFDL-1.2-or-later", "GNU Free Documentation License 1.2 or later"},
+            {"GFDL-1.3-only", "GNU Free Documentation License 1.3"},
+            {"GFDL-1.3-or-later", "GNU Free Documentation License 1.3 or later"},
+            {"GPL-1.0-only", "GNU General Public License 1.0", "GNU GPL 1.0"},
+            {"GPL-1.0-or-later", "GNU General Public License 1.0 or later|GNU General Public License|GNU GPL", "GPL", "GPL 1.0 or later", "GNU GPL 1.0 or later", "GNU GPL 1.0+"},
+            {"GPL-2.0-only", "GNU General Public License 2.0", "GNU GPL 2.0"},
+            {"GPL-2.0-or-later", "GNU General Public License 2.0 or later", "GNU GPL 2.0 or later", "GNU GPL 2.0+"},
+            {"GPL-3.0-only", "GNU General Public License 3.0", "GNU GPL 3.0"},
+            {"GPL-3.0-or-later", "GNU General Public License 3.0 or later", "GNU GPL 3.0 or later", "GNU GPL 3.0+"},
+            {"HPND", "Historical Permission Notice and Disclaimer"},
+            {"ISC", "ISC License"},
+            {"LGPL-2.0-only", "GNU Library General Public License 2.0", "GNU LGPL 2.0"},
+            {"LGPL-2.0-or-later", "GNU Library General Public License 2.0 or later|GNU Lesser General Public License|GNU Library General Public License|GNU LGPL", "LGPL", "GNU LGPL 2.0 or later", "GNU LGPL 2.0+"},
+            {"LGPL-2.1-only", "GNU Lesser General Public License 2.1", "GNU LGPL 2.1"},
+            {"LGPL-2.1-or-later", "GNU Lesser General Public License 2.1 or later", "GNU LGPL 2.1 or later", "GNU LGPL 2.1+"},
+            {"LGPL-3.0-only", "GNU Lesser General Public License 3.0", "GNU LGPL 3.0"},
+            {"LGPL-3.0-or-later", "GNU Lesser General Public License 3.0 or later", "GNU LGPL 3.0 or later", "GNU LGPL 3.0+"},
+            {"MIT", "MIT License|The MIT License|Expat License", "Expat"},
+            {"MIT-0", "MIT No Attribution"},
+            {"MPL-1.0", "Mozilla Public License 1.0"},
+            {"MPL-1.1", "Mozilla Public License 1.1"},
+            {"MPL-2.0", "Mozilla Public License 2.0"},
+            {"MS-PL", "Microsoft Public License"},
+            {"MS-RL", "Microsoft Reciprocal License"},
+            {"NCSA", "University of Illinois/NCSA Open Source License|NCSA Open Source License"},
+            {"NTP", "NTP License|MIT Old Style no advertising"},
+            {"ODbL-1.0", "Open Data Commons Open Database License 1.0"},
+            {"OFL-1.1", "SIL Open Font License 1.1"},
+            {"OpenSSL", "OpenSSL License|OpenSSL/SSLeay License"},
+            {"PHP-3.01", "PHP License 3.01"},
+            {"PostgreSQL", "PostgreSQL License"},
+            {"PSF-2.0", "Python Software Foundation License 2.0"},
+            {"Python-2.0", "Python License 2.0"},
+            {"Ruby", "Ruby License"},
+            {"Sleepycat", "Sleepycat License|Berkeley Database License"},
+            {"Unicode-DFS-2016", "Unicode License Agreement - Data Files and Software (2016)"},
+            {"Unlicense", "The Unlicense"},
+            {"UPL-1.0", "Universal Permissive License 1.0"},
+            {"W3C", "W3C Software Notice and License (2002-12-31)"},
+            {"WTFPL", "Do What The F*ck You Want To Public License", "WTFPL 2.0"},
+            {"Zlib", "zlib License"},
+            {"ZPL-2.1", "Zope Public License 2.1"},
+    };
+    /**
+     * Trailing version with optional "or later" suffix of a normalized pattern
+     */
+    private static final Pattern VERSION = Pattern.compile("^(.+?) (\\d+)((?:\\.\\d+)?)((?: or later|\\+)?)$");
+
+    /**
+     * Normalized pattern to license id
+     */
+    private final Map<String, String> licenses = new LinkedHashMap<String, String>();
+    /**
+     * Normalized patterns which are long names
+     */
+    private final Set<String> names = new HashSet<String>();
+
+    /**
+     * Get dictionary of the built-in SPDX licenses
+     *
+     * @return dictionary
+     */
+    public static LicenseDictionary getDefault() {
+        LicenseDictionary dictionary = new LicenseDictionary();
+        for (String[] row : BUILT_IN) {
+            dictionary.addLicense(row[0], row[1].split("\\|"), Arrays.copyOfRange(row, 2, row.length));
+        }
+        return dictionary;
+    }
+
+    /**
+     * Add license with its long names and keys. The SPDX id, and for "-only" and "-or-later" ids
+     * the legacy "GPL-2.0" and "GPL-2.0+" forms, are added as keys too.
+     *
+     * @param id    SPDX license id
+     * @param names long names
+     * @param keys  keys
+     */
+    public void addLicense(String id, String[] names, String[] keys) {
+        add(id, id, false);
+        if (id.endsWith("-only")) {
+            add(id, id.substring(0, id.length() - 5), false);
+        } else if (id.endsWith("-or-later")) {
+            add(id, id.substring(0, id.length() - 9) + "+", false);
+        }
+        for (String key : keys) {
+            add(id, key, false);
+        }
+        for (String name : names) {
+            add(id, name, true);
+        }
+    }
+
+    /**
+     * Add license reported by ScanCode: its SPDX key, ScanCode key and short name as keys,
+     * its name as long name. Licenses without SPDX key map to "LicenseRef-scancode-" ids.
+     *
+     * @param license license
+     */
+    public void addScanCode(ScanCodeLicense license) {
+        String id = license.spdxLicenseKey != null && !license.spdxLicenseKey.isEmpty()
+                ? license.spdxLicenseKey
+                : "LicenseRef-scancode-" + license.key;
+        List<String> keys = new ArrayList<String>();
+        if (license.key != null) {
+            keys.add(license.key);
+        }
+        if (license.shortName != null) {
+            keys.add(license.shortName);
+        }
+        addLicense(id, license.name != null ? new String[]{license.name} : new String[0], keys.toArray(new String[keys.size()]));
+    }
+
+    /**
+     * Add pattern and its version spellings: "GPL 2.0" also matches "GPL 2", "GPL v2", "GPLv2"
+     * and "GPL version 2"; long names don't get the "GPLv2" form.
+     *
+     * @param id      SPDX license id
+     * @param pattern key or long name
+     * @param name    is long name
+     */
+    public void add(String id, String pattern, boolean name) {
+        String normalized = normalize(pattern);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        put(id, normalized, name);
+        Matcher matcher = VERSION.matcher(normalized);
+        if (!matcher.matches()) {
+            return;
+        }
+        String base = matcher.group(1);
+        String suffix = matcher.group(4);
+        String[] versions = matcher.group(3).equals(".0") || matcher.group(3).isEmpty()
+                ? new String[]{matcher.group(2) + ".0", matcher.group(2)}
+                : new String[]{matcher.group(2) + matcher.group(3)};
+        for (String version : versions) {
+            put(id, base + " " + version + suffix, name);
+            put(id, base + " v" + version + suffix, name);
+            put(id, base + " version " + version + suffix, name);
+            if (!name) {
+                put(id, base + "v" + version + suffix, false);
+            }
+        }
+    }
+
+    /**
+     * Get normalized patterns with license ids, in insertion order
+     *
+     * @return patterns
+     */
+    public Map<String, String> getLicenses() {
+        return licenses;
+    }
+
+    /**
+     * Is normalized pattern a long name
+     *
+     * @param pattern normalized pattern
+     * @return boolean
+     */
+    public boolean isName(String pattern) {
+        return names.contains(pattern);
+    }
+
+    /**
+     * Normalize text the way the matcher reads it
+     *
+     * @param text text
+     * @return normalized
+     */
+    public static String normalize(CharSequence text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = LicenseMatcher.fold(text.charAt(i));
+            if (c != ' ') {
+                builder.append(c);
+            } else if (builder.length() > 0 && builder.charAt(builder.length() - 1) != ' ') {
+                builder.append(' ');
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Put pattern unless already known
+     *
+     * @param id      id
+     * @param pattern normalized pattern
+     * @param name    is long name
+     */
+    private void put(String id, String pattern, boolean name) {
+        if (!licenses.containsKey(pattern)) {
+            licenses.put(pattern, id);
+            if (name) {
+                names.add(pattern);
+            }
+        }
+    }
+}
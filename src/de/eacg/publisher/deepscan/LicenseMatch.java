@@ -0,0 +1,93 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * License key or name found in text
+ */
+public final class LicenseMatch {
+    /**
+     * SPDX license id
+     */
+    private final String license;
+    /**
+     * Start offset in text
+     */
+    private final int start;
+    /**
+     * End offset in text, exclusive
+     */
+    private final int end;
+    /**
+     * Matched a long name rather than a key
+     */
+    private final boolean name;
+
+    /**
+     * Get SPDX license id
+     *
+     * @return id
+     */
+    public String getLicense() {
+        return license;
+    }
+
+    /**
+     * Get start offset
+     *
+     * @return offset
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Get end offset, exclusive
+     *
+     * @return offset
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Get matched length
+     *
+     * @return length
+     */
+    public int getLength() {
+        return end - start;
+    }
+
+    /**
+     * Is long name match
+     *
+     * @return boolean
+     */
+    public boolean isName() {
+        return name;
+    }
+
+    /**
+     * To string
+     *
+     * @return string
+     */
+    @Override
+    public String toString() {
+        return license + "@" + start + "-" + end + (name ? " (name)" : "");
+    }
+
+    /**
+     * Constructor
+     *
+     * @param license license
+     * @param start   start
+     * @param end     end
+     * @param name    name
+     */
+    public LicenseMatch(String license, int start, int end, boolean name) {
+        this.license = license;
+        this.start = start;
+        this.end = end;
+        this.name = name;
+    }
+}
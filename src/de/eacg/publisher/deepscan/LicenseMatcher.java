@@ -0,0 +1,432 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds every license key and long name of a {@link LicenseDictionary} in one pass over text.
+ * The patterns are compiled into an Aho-Corasick automaton kept in flat primitive arrays: the
+ * edges of each state are a sorted slice of {@link #edgeLabel} and {@link #edgeTarget}, states
+ * are numbered in breadth first order. Matching is linear in the text length whatever the size
+ * of the dictionary, and matches are only reported on word boundaries.
+ */
+public class LicenseMatcher {
+    /**
+     * Shared matcher over the built-in dictionary
+     */
+    private static volatile LicenseMatcher shared;
+
+    /**
+     * License ids
+     */
+    private final String[] licenses;
+    /**
+     * License index per pattern
+     */
+    private final int[] patternLicense;
+    /**
+     * Normalized length per pattern
+     */
+    private final int[] patternLength;
+    /**
+     * Long name flag per pattern
+     */
+    private final boolean[] patternName;
+    /**
+     * Longest pattern length
+     */
+    private final int maxLength;
+    /**
+     * First edge per state, edges of state s are [edgeOffset[s], edgeOffset[s + 1])
+     */
+    private final int[] edgeOffset;
+    /**
+     * Edge labels, sorted per state
+     */
+    private final char[] edgeLabel;
+    /**
+     * Edge targets
+     */
+    private final int[] edgeTarget;
+    /**
+     * Failure link per state
+     */
+    private final int[] fail;
+    /**
+     * Pattern ending in state, -1 if none
+     */
+    private final int[] pattern;
+    /**
+     * Next state on the failure chain with a pattern, -1 if none
+     */
+    private final int[] output;
+
+    /**
+     * Get shared matcher over the built-in SPDX licenses
+     *
+     * @return matcher
+     */
+    public static LicenseMatcher getShared() {
+        LicenseMatcher matcher = shared;
+        if (matcher == null) {
+            synchronized (LicenseMatcher.class) {
+                matcher = shared;
+                if (matcher == null) {
+                    matcher = new LicenseMatcher(LicenseDictionary.getDefault());
+                    shared = matcher;
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Find all matches, overlapping ones included, in text order of their end
+     *
+     * @param text text
+     * @return matches
+     */
+    public List<LicenseMatch> findAll(CharSequence text) {
+        List<LicenseMatch> matches = new ArrayList<LicenseMatch>();
+        if (maxLength == 0) {
+            return matches;
+        }
+        int[] positions = new int[maxLength];
+        int state = 0;
+        int count = 0;
+        boolean blank = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == ' ') {
+                if (blank) {
+                    continue;
+                }
+                blank = true;
+            } else {
+                blank = false;
+            }
+            positions[count % maxLength] = i;
+            count++;
+            state = step(state, c);
+            for (int s = pattern[state] >= 0 ? state : output[state]; s >= 0; s = output[s]) {
+                int p = pattern[s];
+                int start = positions[(count - patternLength[p]) % maxLength];
+                int end = i + 1;
+                if ((start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                        && !continuesWord(text, end)) {
+                    matches.add(new LicenseMatch(licenses[patternLicense[p]], start, end, patternName[p]));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Find leftmost longest matches which don't overlap
+     *
+     * @param text text
+     * @return matches, in text order
+     */
+    public List<LicenseMatch> find(CharSequence text) {
+        List<LicenseMatch> matches = findAll(text);
+        Collections.sort(matches, new Comparator<LicenseMatch>() {
+            @Override
+            public int compare(LicenseMatch a, LicenseMatch b) {
+                return a.getStart() != b.getStart() ? a.getStart() - b.getStart() : b.getLength() - a.getLength();
+            }
+        });
+        List<LicenseMatch> result = new ArrayList<LicenseMatch>();
+        int end = 0;
+        for (LicenseMatch match : matches) {
+            if (match.getStart() >= end) {
+                result.add(match);
+                end = match.getEnd();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find longest match
+     *
+     * @param text text
+     * @return match or null
+     */
+    public LicenseMatch findLongest(CharSequence text) {
+        LicenseMatch longest = null;
+        for (LicenseMatch match : findAll(text)) {
+            if (longest == null || match.getLength() > longest.getLength()) {
+                longest = match;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Resolve a reported license to its SPDX id. A key the dictionary knows as a whole wins,
+     * otherwise the longest license found in the long name, otherwise the longest found in the
+     * key, so an invalid key with a usable long name still resolves.
+     *
+     * @param key  license key, may be null
+     * @param name long name, may be null
+     * @return SPDX id or null
+     */
+    public String resolve(String key, String name) {
+        LicenseMatch match = key != null ? findLongest(key) : null;
+        if (match != null && match.getStart() == firstNonBlank(key) && match.getEnd() == lastNonBlank(key)) {
+            return match.getLicense();
+        }
+        LicenseMatch nameMatch = name != null ? findLongest(name) : null;
+        if (nameMatch != null) {
+            return nameMatch.getLicense();
+        }
+        return match != null ? match.getLicense() : null;
+    }
+
+    /**
+     * Get state count
+     *
+     * @return count
+     */
+    public int getStates() {
+        return fail.length;
+    }
+
+    /**
+     * Get pattern count
+     *
+     * @return count
+     */
+    public int getPatterns() {
+        return patternLength.length;
+    }
+
+    /**
+     * Print the licenses found in each argument
+     *
+     * @param args texts
+     */
+    public static void main(String[] args) {
+        LicenseMatcher matcher = getShared();
+        for (String arg : args) {
+            System.out.println(arg + ": " + matcher.find(arg));
+        }
+    }
+
+    /**
+     * Fold character for matching: letters and digits to lower case, '.' and '+' kept,
+     * everything else to a blank
+     *
+     * @param c character
+     * @return folded character
+     */
+    static char fold(char c) {
+        if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '.' || c == '+') {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        return c > 127 && Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : ' ';
+    }
+
+    /**
+     * Does the word go on at offset, a version like "1.2" continues after "1"
+     *
+     * @param text text
+     * @param i    offset
+     * @return boolean
+     */
+    private static boolean continuesWord(CharSequence text, int i) {
+        if (i >= text.length()) {
+            return false;
+        }
+        char c = text.charAt(i);
+        return Character.isLetterOrDigit(c) || (c == '.' && i + 1 < text.length() && Character.isDigit(text.charAt(i + 1)));
+    }
+
+    /**
+     * Follow edges and failure links for character
+     *
+     * @param state state
+     * @param c     folded character
+     * @return next state
+     */
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * Find edge by binary search over the state's labels
+     *
+     * @param state state
+     * @param c     label
+     * @return target or -1
+     */
+    private int edge(int state, char c) {
+        int low = edgeOffset[state];
+        int high = edgeOffset[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char label = edgeLabel[middle];
+            if (label < c) {
+                low = middle + 1;
+            } else if (label > c) {
+                high = middle - 1;
+            } else {
+                return edgeTarget[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get offset of first non blank character
+     *
+     * @param text text
+     * @return offset
+     */
+    private static int firstNonBlank(String text) {
+        int i = 0;
+        while (i < text.length() && fold(text.charAt(i)) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Get offset after last non blank character
+     *
+     * @param text text
+     * @return offset
+     */
+    private static int lastNonBlank(String text) {
+        int i = text.length();
+        while (i > 0 && fold(text.charAt(i - 1)) == ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Constructor, compiles the dictionary
+     *
+     * @param dictionary dictionary
+     */
+    public LicenseMatcher(LicenseDictionary dictionary) {
+        Map<String, String> entries = dictionary.getLicenses();
+        Map<String, Integer> licenseIndex = new LinkedHashMap<String, Integer>();
+        int patterns = entries.size();
+        patternLicense = new int[patterns];
+        patternLength = new int[patterns];
+        patternName = new boolean[patterns];
+
+        // trie with first child / next sibling links
+        int capacity = 256;
+        char[] label = new char[capacity];
+        int[] child = new int[capacity];
+        int[] sibling = new int[capacity];
+        int[] terminal = new int[capacity];
+        child[0] = -1;
+        terminal[0] = -1;
+        int nodes = 1;
+        int longest = 0;
+        int p = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String text = entry.getKey();
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int next = child[node];
+                while (next >= 0 && label[next] != c) {
+                    next = sibling[next];
+                }
+                if (next < 0) {
+                    if (nodes == capacity) {
+                        capacity *= 2;
+                        label = Arrays.copyOf(label, capacity);
+                        child = Arrays.copyOf(child, capacity);
+                        sibling = Arrays.copyOf(sibling, capacity);
+                        terminal = Arrays.copyOf(terminal, capacity);
+                    }
+                    next = nodes++;
+                    label[next] = c;
+                    child[next] = -1;
+                    terminal[next] = -1;
+                    sibling[next] = child[node];
+                    child[node] = next;
+                }
+                node = next;
+            }
+            Integer index = licenseIndex.get(entry.getValue());
+            if (index == null) {
+                index = licenseIndex.size();
+                licenseIndex.put(entry.getValue(), index);
+            }
+            terminal[node] = p;
+            patternLicense[p] = index;
+            patternLength[p] = text.length();
+            patternName[p] = dictionary.isName(text);
+            longest = Math.max(longest, text.length());
+            p++;
+        }
+        licenses = licenseIndex.keySet().toArray(new String[licenseIndex.size()]);
+        maxLength = longest;
+
+        // renumber breadth first, edges of each state sorted by label
+        int[] order = new int[nodes];
+        int[] renumbered = new int[nodes];
+        edgeOffset = new int[nodes + 1];
+        edgeLabel = new char[nodes - 1];
+        edgeTarget = new int[nodes - 1];
+        pattern = new int[nodes];
+        int tail = 1;
+        int edges = 0;
+        for (int head = 0; head < nodes; head++) {
+            int node = order[head];
+            pattern[head] = terminal[node];
+            edgeOffset[head] = edges;
+            int first = edges;
+            for (int next = child[node]; next >= 0; next = sibling[next]) {
+                renumbered[next] = tail;
+                order[tail++] = next;
+                int i = edges++;
+                while (i > first && edgeLabel[i - 1] > label[next]) {
+                    edgeLabel[i] = edgeLabel[i - 1];
+                    edgeTarget[i] = edgeTarget[i - 1];
+                    i--;
+                }
+                edgeLabel[i] = label[next];
+                edgeTarget[i] = renumbered[next];
+            }
+        }
+        edgeOffset[nodes] = edges;
+
+        // failure and output links, parents are always numbered before their children
+        fail = new int[nodes];
+        output = new int[nodes];
+        output[0] = -1;
+        for (int state = 0; state < nodes; state++) {
+            for (int e = edgeOffset[state]; e < edgeOffset[state + 1]; e++) {
+                int target = edgeTarget[e];
+                int f = state == 0 ? 0 : step(fail[state], edgeLabel[e]);
+                fail[target] = f;
+                output[target] = pattern[f] >= 0 ? f : output[f];
+            }
+        }
+    }
+}
@@ -0,0 +1,749 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content addressed cache of scan results keyed by file sha1, so unchanged and duplicate files
+ * are analysed once. Results are appended to a data file; an open addressing hash table of
+ * sha1 and data offset is kept in a memory mapped index file and doubled when it gets three
+ * quarters full. Recently used results stay decoded in an LRU map in front of it.
+ * The index is rebuilt from the data file when it is missing or points past its end, and an
+ * entry whose stored sha1 differs from the key is treated as a miss.
+ */
+public class ResultCache implements Closeable {
+    /**
+     * Index file name constant
+     */
+    public static final String INDEX_FILE = "index.dat";
+    /**
+     * Data file name constant
+     */
+    public static final String DATA_FILE = "results.dat";
+    /**
+     * Results kept in memory
+     */
+    public static final int MEMORY_ENTRIES = Integer.getInteger(ResultCache.class.getName() + ".memoryEntries", 10000);
+    /**
+     * Index magic constant
+     */
+    private static final int INDEX_MAGIC = 0x44534349;
+    /**
+     * Data magic constant
+     */
+    private static final long DATA_MAGIC = 0x4453524553554c54L;
+    /**
+     * Index header: magic, capacity, count
+     */
+    private static final int HEADER = 12;
+    /**
+     * Slot: sha1 and data offset, offset 0 marks an empty slot
+     */
+    private static final int SLOT = 28;
+    /**
+     * Sha1 length
+     */
+    private static final int KEY = 20;
+    /**
+     * Initial slot count, a power of two
+     */
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    /**
+     * Directory
+     */
+    private final Path directory;
+    /**
+     * Data file channel
+     */
+    private final FileChannel data;
+    /**
+     * Data file size
+     */
+    private long dataSize;
+    /**
+     * Index file channel
+     */
+    private FileChannel indexChannel;
+    /**
+     * Mapped index
+     */
+    private MappedByteBuffer index;
+    /**
+     * Slot count
+     */
+    private int capacity;
+    /**
+     * Entry count
+     */
+    private int count;
+    /**
+     * Decoded results, least recently used first
+     */
+    private final LinkedHashMap<String, ScanCodeFile> memory;
+    /**
+     * Memory hits
+     */
+    private final AtomicLong memoryHits = new AtomicLong();
+    /**
+     * Disk hits
+     */
+    private final AtomicLong diskHits = new AtomicLong();
+    /**
+     * Misses
+     */
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * Results stored
+     */
+    private final AtomicLong puts = new AtomicLong();
+    /**
+     * Memory evictions
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Open cache, creates the directory if needed
+     *
+     * @param directory     directory
+     * @param memoryEntries results kept in memory
+     * @return cache
+     * @throws IOException IOException
+     */
+    public static ResultCache open(Path directory, int memoryEntries) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+        }
+        return new ResultCache(directory, memoryEntries);
+    }
+
+    /**
+     * Get cached result
+     *
+     * @param sha1 hex sha1
+     * @return shared result, only its result fields are set, or null; apply it with {@link #copyResult}
+     * @throws IOException IOException
+     */
+    public ScanCodeFile get(String sha1) throws IOException {
+        synchronized (memory) {
+            ScanCodeFile result = memory.get(sha1);
+            if (result != null) {
+                memoryHits.incrementAndGet();
+                return result;
+            }
+        }
+        byte[] key = toBytes(sha1);
+        long offset;
+        long size;
+        synchronized (this) {
+            int slot = find(key);
+            offset = slot >= 0 ? index.getLong(HEADER + slot * SLOT + KEY) : 0;
+            size = dataSize;
+        }
+        ByteBuffer header = ByteBuffer.allocate(KEY + 4);
+        if (offset != 0 && offset + KEY + 4 <= size) {
+            readFully(header, offset);
+        }
+        int length = header.getInt(KEY);
+        if (offset == 0 || length <= 0 || offset + KEY + 4 + length > size || !matches(header, key)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, offset + KEY + 4);
+        ScanCodeFile result = decode(payload.array());
+        diskHits.incrementAndGet();
+        remember(sha1, result);
+        return result;
+    }
+
+    /**
+     * Store result unless the sha1 is known
+     *
+     * @param sha1   hex sha1
+     * @param result record, its result fields are stored
+     * @return stored
+     * @throws IOException IOException
+     */
+    public boolean put(String sha1, ScanCodeFile result) throws IOException {
+        byte[] key = toBytes(sha1);
+        byte[] payload = encode(result);
+        synchronized (this) {
+            int slot = find(key);
+            if (slot >= 0) {
+                return false;
+            }
+            long offset = dataSize;
+            ByteBuffer entry = ByteBuffer.allocate(KEY + 4 + payload.length);
+            entry.put(key).putInt(payload.length).put(payload).flip();
+            while (entry.hasRemaining()) {
+                data.write(entry, offset + entry.position());
+            }
+            dataSize += entry.limit();
+            insert(key, offset);
+        }
+        puts.incrementAndGet();
+        remember(sha1, copyResult(result, new ScanCodeFile()));
+        return true;
+    }
+
+    /**
+     * Store the results of a ScanCode report
+     *
+     * @param report ScanCode report
+     * @return results stored
+     * @throws IOException IOException
+     */
+    public int importScanCode(Path report) throws IOException {
+        int imported = 0;
+        ScanCodeReader reader = ScanCodeReader.open(report);
+        try {
+            ScanCodeFile file;
+            while ((file = reader.next()) != null) {
+                if (file.isFile() && file.getSha1() != null && put(file.getSha1(), file)) {
+                    imported++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return imported;
+    }
+
+    /**
+     * Copy result fields, everything but path, type, size and hashes
+     *
+     * @param source source
+     * @param target target
+     * @return target
+     */
+    public static ScanCodeFile copyResult(ScanCodeFile source, ScanCodeFile target) {
+        target.binary = source.binary;
+        target.mimeType = source.mimeType;
+        target.programmingLanguage = source.programmingLanguage;
+        target.licenses.addAll(source.licenses);
+        target.licenseExpressions.addAll(source.licenseExpressions);
+        target.copyrights.addAll(source.copyrights);
+        target.holders.addAll(source.holders);
+        target.authors.addAll(source.authors);
+        target.emails.addAll(source.emails);
+        target.urls.addAll(source.urls);
+        return target;
+    }
+
+    /**
+     * Get entry count
+     *
+     * @return count
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Get memory hits
+     *
+     * @return count
+     */
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /**
+     * Get disk hits
+     *
+     * @return count
+     */
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Get misses
+     *
+     * @return count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get results stored
+     *
+     * @return count
+     */
+    public long getPuts() {
+        return puts.get();
+    }
+
+    /**
+     * Get memory evictions
+     *
+     * @return count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Metrics summary
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        long hits = memoryHits.get() + diskHits.get();
+        long lookups = hits + misses.get();
+        return String.format("cache: %d entries, %d lookups, %d memory hits, %d disk hits, %d misses (%.1f%% hit rate), %d stored, %d evicted",
+                size(), lookups, memoryHits.get(), diskHits.get(), misses.get(), lookups == 0 ? 0.0 : hits * 100.0 / lookups,
+                puts.get(), evictions.get());
+    }
+
+    /**
+     * Close, flushes index and data
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        data.force(false);
+        data.close();
+        index.force();
+        indexChannel.close();
+    }
+
+    /**
+     * Keep result in memory
+     *
+     * @param sha1   sha1
+     * @param result result
+     */
+    private void remember(String sha1, ScanCodeFile result) {
+        synchronized (memory) {
+            memory.put(sha1, result);
+        }
+    }
+
+    /**
+     * Find slot of key
+     *
+     * @param key sha1
+     * @return slot or -(free slot) - 1
+     */
+    private int find(byte[] key) {
+        int mask = capacity - 1;
+        int slot = ((key[0] & 0xFF) << 24 | (key[1] & 0xFF) << 16 | (key[2] & 0xFF) << 8 | (key[3] & 0xFF)) & mask;
+        while (true) {
+            int base = HEADER + slot * SLOT;
+            if (index.getLong(base + KEY) == 0) {
+                return -slot - 1;
+            }
+            int i = 0;
+            while (i < KEY && index.get(base + i) == key[i]) {
+                i++;
+            }
+            if (i == KEY) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Does the sha1 stored at the start of a data entry equal the key, an index slot pointing
+     * elsewhere after the data file was replaced or cut must not return another file's result
+     *
+     * @param entry entry header
+     * @param key   sha1
+     * @return boolean
+     */
+    private static boolean matches(ByteBuffer entry, byte[] key) {
+        for (int i = 0; i < KEY; i++) {
+            if (entry.get(i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Is every offset of the index inside the data file
+     *
+     * @return boolean
+     */
+    private boolean isIndexInData() {
+        for (int slot = 0; slot < capacity; slot++) {
+            long offset = index.getLong(HEADER + slot * SLOT + KEY);
+            if (offset != 0 && (offset < 8 || offset + KEY + 4 > dataSize)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Insert new key, grows the index first when three quarters full
+     *
+     * @param key    sha1
+     * @param offset data offset
+     * @throws IOException IOException
+     */
+    private void insert(byte[] key, long offset) throws IOException {
+        if ((count + 1) * 4L > capacity * 3L) {
+            resize(capacity * 2);
+        }
+        int base = HEADER + (-find(key) - 1) * SLOT;
+        for (int i = 0; i < KEY; i++) {
+            index.put(base + i, key[i]);
+        }
+        index.putLong(base + KEY, offset);
+        index.putInt(8, ++count);
+    }
+
+    /**
+     * Rewrite index with a new capacity and replace the current one
+     *
+     * @param newCapacity slot count, a power of two
+     * @throws IOException IOException
+     */
+    private void resize(int newCapacity) throws IOException {
+        MappedByteBuffer old = index;
+        int oldCapacity = capacity;
+        Path file = directory.resolve(INDEX_FILE + ".tmp");
+        FileChannel channel = createIndex(file, newCapacity);
+        index = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) newCapacity * SLOT);
+        capacity = newCapacity;
+        byte[] key = new byte[KEY];
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int base = HEADER + slot * SLOT;
+            long offset = old.getLong(base + KEY);
+            if (offset != 0) {
+                for (int i = 0; i < KEY; i++) {
+                    key[i] = old.get(base + i);
+                }
+                int target = HEADER + (-find(key) - 1) * SLOT;
+                for (int i = 0; i < KEY; i++) {
+                    index.put(target + i, key[i]);
+                }
+                index.putLong(target + KEY, offset);
+            }
+        }
+        index.putInt(8, count);
+        index.force();
+        indexChannel.close();
+        indexChannel = channel;
+        Files.move(file, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Create empty index file
+     *
+     * @param file        file
+     * @param newCapacity slot count
+     * @return channel
+     * @throws IOException IOException
+     */
+    private static FileChannel createIndex(Path file, int newCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(INDEX_MAGIC).putInt(newCapacity).putInt(0).flip();
+        channel.write(header, 0);
+        channel.write(ByteBuffer.allocate(1), HEADER + (long) newCapacity * SLOT - 1);
+        return channel;
+    }
+
+    /**
+     * Rebuild index from the data file, cutting off an incomplete last entry
+     *
+     * @throws IOException IOException
+     */
+    private void rebuild() throws IOException {
+        Path file = directory.resolve(INDEX_FILE);
+        indexChannel = createIndex(file, INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        count = 0;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) capacity * SLOT);
+        long offset = 8;
+        ByteBuffer entry = ByteBuffer.allocate(KEY + 4);
+        while (offset + KEY + 4 <= dataSize) {
+            entry.clear();
+            readFully(entry, offset);
+            int length = entry.getInt(KEY);
+            if (length <= 0 || offset + KEY + 4 + length > dataSize) {
+                break;
+            }
+            byte[] key = new byte[KEY];
+            System.arraycopy(entry.array(), 0, key, 0, KEY);
+            if (find(key) < 0) {
+                insert(key, offset);
+            }
+            offset += KEY + 4 + length;
+        }
+        if (offset < dataSize) {
+            data.truncate(offset);
+            dataSize = offset;
+        }
+    }
+
+    /**
+     * Read until buffer is full
+     *
+     * @param buffer   buffer
+     * @param position file position
+     * @throws IOException IOException
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated cache entry at " + position);
+            }
+        }
+    }
+
+    /**
+     * Encode result fields
+     *
+     * @param result result
+     * @return bytes
+     * @throws IOException IOException
+     */
+    static byte[] encode(ScanCodeFile result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBoolean(result.binary);
+        writeString(out, result.mimeType);
+        writeString(out, result.programmingLanguage);
+        out.writeInt(result.licenses.size());
+        for (ScanCodeLicense license : result.licenses) {
+            writeString(out, license.key);
+            out.writeDouble(license.score);
+            writeString(out, license.name);
+            writeString(out, license.shortName);
+            writeString(out, license.category);
+            writeString(out, license.spdxLicenseKey);
+            out.writeInt(license.startLine);
+            out.writeInt(license.endLine);
+            writeString(out, license.ruleIdentifier);
+            writeString(out, license.ruleLicenseExpression);
+            writeString(out, license.matcher);
+            out.writeInt(license.matchedLength);
+            out.writeDouble(license.matchCoverage);
+        }
+        out.writeInt(result.licenseExpressions.size());
+        for (String expression : result.licenseExpressions) {
+            writeString(out, expression);
+        }
+        writeStatements(out, result.copyrights);
+        writeStatements(out, result.holders);
+        writeStatements(out, result.authors);
+        writeStatements(out, result.emails);
+        writeStatements(out, result.urls);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode result fields
+     *
+     * @param bytes bytes
+     * @return result
+     * @throws IOException IOException
+     */
+    static ScanCodeFile decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        ScanCodeFile result = new ScanCodeFile();
+        result.binary = in.readBoolean();
+        result.mimeType = readString(in);
+        result.programmingLanguage = readString(in);
+        for (int i = in.readInt(); i > 0; i--) {
+            ScanCodeLicense license = new ScanCodeLicense();
+            license.key = readString(in);
+            license.score = in.readDouble();
+            license.name = readString(in);
+            license.shortName = readString(in);
+            license.category = readString(in);
+            license.spdxLicenseKey = readString(in);
+            license.startLine = in.readInt();
+            license.endLine = in.readInt();
+            license.ruleIdentifier = readString(in);
+            license.ruleLicenseExpression = readString(in);
+            license.matcher = readString(in);
+            license.matchedLength = in.readInt();
+            license.matchCoverage = in.readDouble();
+            result.licenses.add(license);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            result.licenseExpressions.add(readString(in));
+        }
+        readStatements(in, result.copyrights);
+        readStatements(in, result.holders);
+        readStatements(in, result.authors);
+        readStatements(in, result.emails);
+        readStatements(in, result.urls);
+        return result;
+    }
+
+    /**
+     * Write statements
+     *
+     * @param out        output
+     * @param statements statements
+     * @throws IOException IOException
+     */
+    private static void writeStatements(DataOutputStream out, List<ScanCodeStatement> statements) throws IOException {
+        out.writeInt(statements.size());
+        for (ScanCodeStatement statement : statements) {
+            writeString(out, statement.getValue());
+            out.writeInt(statement.getStartLine());
+            out.writeInt(statement.getEndLine());
+        }
+    }
+
+    /**
+     * Read statements
+     *
+     * @param in         input
+     * @param statements target
+     * @throws IOException IOException
+     */
+    private static void readStatements(DataInputStream in, List<ScanCodeStatement> statements) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            String value = readString(in);
+            statements.add(new ScanCodeStatement(value, in.readInt(), in.readInt()));
+        }
+    }
+
+    /**
+     * Write nullable string
+     *
+     * @param out   output
+     * @param value value
+     * @throws IOException IOException
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read nullable string
+     *
+     * @param in input
+     * @return value
+     * @throws IOException IOException
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Convert hex sha1 to bytes
+     *
+     * @param sha1 hex sha1
+     * @return bytes
+     */
+    static byte[] toBytes(String sha1) {
+        if (sha1.length() != KEY * 2) {
+            throw new IllegalArgumentException("Invalid sha1 " + sha1);
+        }
+        byte[] key = new byte[KEY];
+        for (int i = 0; i < KEY; i++) {
+            key[i] = (byte) (Character.digit(sha1.charAt(i * 2), 16) << 4 | Character.digit(sha1.charAt(i * 2 + 1), 16));
+        }
+        return key;
+    }
+
+    /**
+     * Convert bytes to hex
+     *
+     * @param bytes bytes
+     * @return hex
+     */
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Constructor, opens or creates data and index files
+     *
+     * @param directory     directory
+     * @param memoryEntries results kept in memory
+     * @throws IOException IOException
+     */
+    private ResultCache(Path directory, final int memoryEntries) throws IOException {
+        this.directory = directory;
+        this.memory = new LinkedHashMap<String, ScanCodeFile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScanCodeFile> eldest) {
+                if (size() > memoryEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Path dataFile = directory.resolve(DATA_FILE);
+        data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataSize = data.size();
+        ByteBuffer magic = ByteBuffer.allocate(8);
+        if (dataSize == 0) {
+            magic.putLong(DATA_MAGIC).flip();
+            data.write(magic, 0);
+            dataSize = 8;
+        } else {
+            if (dataSize >= 8) {
+                readFully(magic, 0);
+            }
+            if (dataSize < 8 || magic.getLong(0) != DATA_MAGIC) {
+                data.close();
+                throw new IOException("Not a result cache: " + dataFile);
+            }
+        }
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (Files.isRegularFile(indexFile)) {
+            indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+            capacity = indexChannel.size() >= HEADER ? index.getInt(4) : 0;
+            if (capacity > 0 && index.getInt(0) == INDEX_MAGIC && (capacity & (capacity - 1)) == 0
+                    && indexChannel.size() == HEADER + (long) capacity * SLOT && isIndexInData()) {
+                count = index.getInt(8);
+                return;
+            }
+            indexChannel.close();
+        }
+        rebuild();
+    }
+}
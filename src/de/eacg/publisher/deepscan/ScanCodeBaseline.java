@@ -0,0 +1,174 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ScanCode report used as correctness baseline for local scans of the same tree. Licenses are
+ * compared as SPDX ids, holders by case insensitive containment.
+ */
+public class ScanCodeBaseline {
+    /**
+     * Baseline licenses by path
+     */
+    private final Map<String, Set<String>> licenses = new HashMap<String, Set<String>>();
+    /**
+     * Baseline holders by path, lower case
+     */
+    private final Map<String, Set<String>> holders = new HashMap<String, Set<String>>();
+    /**
+     * Files compared
+     */
+    private int compared;
+    /**
+     * Files not in the baseline
+     */
+    private int unknown;
+    /**
+     * Files with the same licenses
+     */
+    private int licensesEqual;
+    /**
+     * Files with some but not all baseline licenses and nothing else
+     */
+    private int licensesPartial;
+    /**
+     * Files with licenses the baseline doesn't have
+     */
+    private int licensesExtra;
+    /**
+     * Files with baseline licenses but none found
+     */
+    private int licensesMissed;
+    /**
+     * Files with baseline holders
+     */
+    private int holderFiles;
+    /**
+     * Files with at least one baseline holder found
+     */
+    private int holdersFound;
+
+    /**
+     * Load baseline report
+     *
+     * @param file ScanCode report
+     * @return baseline
+     * @throws IOException IOException
+     */
+    public static ScanCodeBaseline load(Path file) throws IOException {
+        ScanCodeBaseline baseline = new ScanCodeBaseline();
+        ScanCodeReader reader = ScanCodeReader.open(file);
+        try {
+            ScanCodeFile record;
+            while ((record = reader.next()) != null) {
+                if (record.isFile()) {
+                    baseline.licenses.put(record.getPath(), getLicenses(record));
+                    baseline.holders.put(record.getPath(), getHolders(record.getHolders()));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return baseline;
+    }
+
+    /**
+     * Compare scanned file with the baseline
+     *
+     * @param file scanned file
+     */
+    public synchronized void compare(ScanCodeFile file) {
+        if (!file.isFile()) {
+            return;
+        }
+        Set<String> expected = licenses.get(file.getPath());
+        if (expected == null) {
+            unknown++;
+            return;
+        }
+        compared++;
+        Set<String> found = getLicenses(file);
+        if (found.equals(expected)) {
+            licensesEqual++;
+        } else if (found.isEmpty()) {
+            licensesMissed++;
+        } else if (expected.containsAll(found)) {
+            licensesPartial++;
+        } else {
+            licensesExtra++;
+        }
+        Set<String> expectedHolders = holders.get(file.getPath());
+        if (!expectedHolders.isEmpty()) {
+            holderFiles++;
+            if (containsAny(expectedHolders, getHolders(file.getHolders()))) {
+                holdersFound++;
+            }
+        }
+    }
+
+    /**
+     * Summary
+     *
+     * @return text
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("baseline: %d files compared, %d not in baseline; licenses: %d equal, %d partial, %d extra, %d missed; holders found in %d of %d files",
+                compared, unknown, licensesEqual, licensesPartial, licensesExtra, licensesMissed, holdersFound, holderFiles);
+    }
+
+    /**
+     * Get SPDX ids of a record, "LicenseRef-scancode-" ids for licenses without one
+     *
+     * @param file record
+     * @return ids
+     */
+    private static Set<String> getLicenses(ScanCodeFile file) {
+        Set<String> ids = new HashSet<String>();
+        for (ScanCodeLicense license : file.getLicenses()) {
+            ids.add(license.getSpdxLicenseKey() != null ? license.getSpdxLicenseKey() : "LicenseRef-scancode-" + license.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Get lower case holder values
+     *
+     * @param statements holders
+     * @return values
+     */
+    private static Set<String> getHolders(List<ScanCodeStatement> statements) {
+        Set<String> values = new HashSet<String>();
+        for (ScanCodeStatement statement : statements) {
+            if (statement.getValue() != null) {
+                values.add(statement.getValue().toLowerCase(Locale.ROOT));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Does any expected holder contain or is contained in a found one
+     *
+     * @param expected expected
+     * @param found    found
+     * @return boolean
+     */
+    private static boolean containsAny(Set<String> expected, Set<String> found) {
+        for (String holder : found) {
+            for (String candidate : expected) {
+                if (candidate.contains(holder) || holder.contains(candidate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
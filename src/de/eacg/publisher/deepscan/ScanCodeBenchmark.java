@@ -0,0 +1,124 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Throughput benchmark of {@link ScanCodeReader} over ScanCode JSON reports.
+ * Usage: ScanCodeBenchmark [rounds] [file or directory...], defaults to 10 rounds over SPDX.
+ */
+public final class ScanCodeBenchmark {
+    /**
+     * Warm up rounds constant
+     */
+    private static final int WARM_UP_ROUNDS = 3;
+
+    /**
+     * Run benchmark
+     *
+     * @param args rounds followed by files or directories
+     * @throws IOException IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int rounds = 10;
+        List<String> paths = new ArrayList<String>(Arrays.asList(args));
+        if (!paths.isEmpty() && paths.get(0).matches("\\d+")) {
+            rounds = Integer.parseInt(paths.remove(0));
+        }
+        if (paths.isEmpty()) {
+            paths.add("SPDX");
+        }
+        List<File> reports = new ArrayList<File>();
+        for (String path : paths) {
+            File file = new File(path);
+            File[] children = file.isDirectory() ? file.listFiles() : new File[]{file};
+            if (children == null) {
+                continue;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isFile() && child.getName().endsWith(".json")) {
+                    reports.add(child);
+                }
+            }
+        }
+        if (reports.isEmpty()) {
+            System.err.println("No ScanCode JSON reports found in " + paths);
+            return;
+        }
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            for (File report : reports) {
+                read(report);
+            }
+        }
+        long totalBytes = 0;
+        long totalFiles = 0;
+        long totalNanos = 0;
+        for (File report : reports) {
+            long files = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                files = read(report);
+            }
+            long nanos = System.nanoTime() - started;
+            totalBytes += report.length() * rounds;
+            totalFiles += files * rounds;
+            totalNanos += nanos;
+            System.out.println(String.format("%-32s %8d files %10.1f MB/s %12.0f files/s",
+                    report.getName(), files, mbPerSecond(report.length() * rounds, nanos), perSecond(files * rounds, nanos)));
+        }
+        System.out.println(String.format("%-32s %8d files %10.1f MB/s %12.0f files/s",
+                "total", totalFiles / rounds, mbPerSecond(totalBytes, totalNanos), perSecond(totalFiles, totalNanos)));
+    }
+
+    /**
+     * Read whole report
+     *
+     * @param report report
+     * @return file records read
+     * @throws IOException IOException
+     */
+    private static long read(File report) throws IOException {
+        long count = 0;
+        ScanCodeReader reader = ScanCodeReader.open(report.toPath());
+        try {
+            while (reader.next() != null) {
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    /**
+     * Get megabytes per second
+     *
+     * @param bytes bytes
+     * @param nanos nanos
+     * @return rate
+     */
+    private static double mbPerSecond(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    /**
+     * Get count per second
+     *
+     * @param count count
+     * @param nanos nanos
+     * @return rate
+     */
+    private static double perSecond(long count, long nanos) {
+        return count / (nanos / 1e9);
+    }
+
+    /**
+     * Constructor
+     */
+    private ScanCodeBenchmark() {
+    }
+}
@@ -0,0 +1,276 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File record of a ScanCode report
+ */
+public final class ScanCodeFile {
+    /**
+     * Path
+     */
+    String path;
+    /**
+     * Type, "file" or "directory"
+     */
+    String type;
+    /**
+     * Size
+     */
+    long size;
+    /**
+     * Sha1, null for directories
+     */
+    String sha1;
+    /**
+     * Md5, null for directories
+     */
+    String md5;
+    /**
+     * Mime type
+     */
+    String mimeType;
+    /**
+     * Programming language
+     */
+    String programmingLanguage;
+    /**
+     * Is binary
+     */
+    boolean binary;
+    /**
+     * Files below a directory
+     */
+    int filesCount;
+    /**
+     * Directories below a directory
+     */
+    int dirsCount;
+    /**
+     * Size of the files below a directory
+     */
+    long sizeCount;
+    /**
+     * Licenses
+     */
+    final List<ScanCodeLicense> licenses = new ArrayList<ScanCodeLicense>();
+    /**
+     * License expressions
+     */
+    final List<String> licenseExpressions = new ArrayList<String>();
+    /**
+     * Copyrights
+     */
+    final List<ScanCodeStatement> copyrights = new ArrayList<ScanCodeStatement>();
+    /**
+     * Holders
+     */
+    final List<ScanCodeStatement> holders = new ArrayList<ScanCodeStatement>();
+    /**
+     * Authors
+     */
+    final List<ScanCodeStatement> authors = new ArrayList<ScanCodeStatement>();
+    /**
+     * Emails
+     */
+    final List<ScanCodeStatement> emails = new ArrayList<ScanCodeStatement>();
+    /**
+     * Urls
+     */
+    final List<ScanCodeStatement> urls = new ArrayList<ScanCodeStatement>();
+    /**
+     * Scan errors
+     */
+    final List<String> scanErrors = new ArrayList<String>();
+
+    /**
+     * Get path
+     *
+     * @return path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get type
+     *
+     * @return type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Is file, not directory
+     *
+     * @return boolean
+     */
+    public boolean isFile() {
+        return "file".equals(type);
+    }
+
+    /**
+     * Get size
+     *
+     * @return size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get sha1
+     *
+     * @return sha1 or null
+     */
+    public String getSha1() {
+        return sha1;
+    }
+
+    /**
+     * Get md5
+     *
+     * @return md5 or null
+     */
+    public String getMd5() {
+        return md5;
+    }
+
+    /**
+     * Get mime type
+     *
+     * @return mime type or null
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Get programming language
+     *
+     * @return language or null
+     */
+    public String getProgrammingLanguage() {
+        return programmingLanguage;
+    }
+
+    /**
+     * Is binary
+     *
+     * @return boolean
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Get files below a directory
+     *
+     * @return count
+     */
+    public int getFilesCount() {
+        return filesCount;
+    }
+
+    /**
+     * Get directories below a directory
+     *
+     * @return count
+     */
+    public int getDirsCount() {
+        return dirsCount;
+    }
+
+    /**
+     * Get size of the files below a directory
+     *
+     * @return size
+     */
+    public long getSizeCount() {
+        return sizeCount;
+    }
+
+    /**
+     * Get licenses
+     *
+     * @return licenses
+     */
+    public List<ScanCodeLicense> getLicenses() {
+        return licenses;
+    }
+
+    /**
+     * Get license expressions
+     *
+     * @return expressions
+     */
+    public List<String> getLicenseExpressions() {
+        return licenseExpressions;
+    }
+
+    /**
+     * Get copyrights
+     *
+     * @return copyrights
+     */
+    public List<ScanCodeStatement> getCopyrights() {
+        return copyrights;
+    }
+
+    /**
+     * Get holders
+     *
+     * @return holders
+     */
+    public List<ScanCodeStatement> getHolders() {
+        return holders;
+    }
+
+    /**
+     * Get authors
+     *
+     * @return authors
+     */
+    public List<ScanCodeStatement> getAuthors() {
+        return authors;
+    }
+
+    /**
+     * Get emails
+     *
+     * @return emails
+     */
+    public List<ScanCodeStatement> getEmails() {
+        return emails;
+    }
+
+    /**
+     * Get urls
+     *
+     * @return urls
+     */
+    public List<ScanCodeStatement> getUrls() {
+        return urls;
+    }
+
+    /**
+     * Get scan errors
+     *
+     * @return errors
+     */
+    public List<String> getScanErrors() {
+        return scanErrors;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return path + " " + licenseExpressions;
+    }
+}
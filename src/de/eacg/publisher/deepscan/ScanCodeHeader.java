@@ -0,0 +1,72 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * Header of a ScanCode report
+ */
+public final class ScanCodeHeader {
+    /**
+     * Tool name
+     */
+    String toolName;
+    /**
+     * Tool version
+     */
+    String toolVersion;
+    /**
+     * Start timestamp
+     */
+    String startTimestamp;
+    /**
+     * End timestamp
+     */
+    String endTimestamp;
+    /**
+     * Files count, -1 if unknown
+     */
+    int filesCount = -1;
+
+    /**
+     * Get tool name
+     *
+     * @return name
+     */
+    public String getToolName() {
+        return toolName;
+    }
+
+    /**
+     * Get tool version
+     *
+     * @return version
+     */
+    public String getToolVersion() {
+        return toolVersion;
+    }
+
+    /**
+     * Get start timestamp
+     *
+     * @return timestamp
+     */
+    public String getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    /**
+     * Get end timestamp
+     *
+     * @return timestamp
+     */
+    public String getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    /**
+     * Get files count
+     *
+     * @return count or -1 if unknown
+     */
+    public int getFilesCount() {
+        return filesCount;
+    }
+}
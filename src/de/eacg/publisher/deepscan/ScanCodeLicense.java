@@ -0,0 +1,186 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * License detected by ScanCode in a file, with the rule that matched
+ */
+public final class ScanCodeLicense {
+    /**
+     * ScanCode license key
+     */
+    String key;
+    /**
+     * Score
+     */
+    double score;
+    /**
+     * Name
+     */
+    String name;
+    /**
+     * Short name
+     */
+    String shortName;
+    /**
+     * Category
+     */
+    String category;
+    /**
+     * SPDX license key
+     */
+    String spdxLicenseKey;
+    /**
+     * Start line
+     */
+    int startLine;
+    /**
+     * End line
+     */
+    int endLine;
+    /**
+     * Matched rule identifier
+     */
+    String ruleIdentifier;
+    /**
+     * Matched rule license expression
+     */
+    String ruleLicenseExpression;
+    /**
+     * Matcher, e.g. "2-aho"
+     */
+    String matcher;
+    /**
+     * Matched length
+     */
+    int matchedLength;
+    /**
+     * Match coverage
+     */
+    double matchCoverage;
+
+    /**
+     * Get ScanCode license key
+     *
+     * @return key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get score
+     *
+     * @return score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Get name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get short name
+     *
+     * @return short name
+     */
+    public String getShortName() {
+        return shortName;
+    }
+
+    /**
+     * Get category
+     *
+     * @return category
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Get SPDX license key
+     *
+     * @return key or null
+     */
+    public String getSpdxLicenseKey() {
+        return spdxLicenseKey;
+    }
+
+    /**
+     * Get start line
+     *
+     * @return line
+     */
+    public int getStartLine() {
+        return startLine;
+    }
+
+    /**
+     * Get end line
+     *
+     * @return line
+     */
+    public int getEndLine() {
+        return endLine;
+    }
+
+    /**
+     * Get matched rule identifier
+     *
+     * @return identifier
+     */
+    public String getRuleIdentifier() {
+        return ruleIdentifier;
+    }
+
+    /**
+     * Get matched rule license expression
+     *
+     * @return expression
+     */
+    public String getRuleLicenseExpression() {
+        return ruleLicenseExpression;
+    }
+
+    /**
+     * Get matcher
+     *
+     * @return matcher
+     */
+    public String getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Get matched length
+     *
+     * @return length
+     */
+    public int getMatchedLength() {
+        return matchedLength;
+    }
+
+    /**
+     * Get match coverage
+     *
+     * @return percentage
+     */
+    public double getMatchCoverage() {
+        return matchCoverage;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return key + " (" + startLine + "-" + endLine + ", " + score + ")";
+    }
+}
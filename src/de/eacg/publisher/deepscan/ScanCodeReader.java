@@ -0,0 +1,408 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import de.eacg.ecs.publisher.JsonStreamReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader for ScanCode JSON reports. File records are read one at a time from the
+ * "files" array, so memory stays constant regardless of the number of files. Repeated license
+ * metadata is shared through a bounded intern table.
+ */
+public class ScanCodeReader implements Closeable {
+    /**
+     * Max interned strings, the table is cleared when full
+     */
+    private static final int MAX_INTERNED = 4096;
+    /**
+     * State constants
+     */
+    private static final int START = 0;
+    private static final int IN_REPORT = 1;
+    private static final int IN_FILES = 2;
+    private static final int END = 3;
+
+    /**
+     * Tokenizer
+     */
+    private final JsonStreamReader reader;
+    /**
+     * Headers read so far
+     */
+    private final List<ScanCodeHeader> headers = new ArrayList<ScanCodeHeader>();
+    /**
+     * Interned strings
+     */
+    private final Map<String, String> interned = new HashMap<String, String>();
+    /**
+     * State
+     */
+    private int state = START;
+
+    /**
+     * Open report
+     *
+     * @param file file
+     * @return reader
+     * @throws IOException IOException
+     */
+    public static ScanCodeReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return new ScanCodeReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get headers, complete once the first file was read when headers come first as ScanCode writes them
+     *
+     * @return headers
+     */
+    public List<ScanCodeHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Read next file record
+     *
+     * @return file or null at the end of the report
+     * @throws IOException IOException
+     */
+    public ScanCodeFile next() throws IOException {
+        while (state != END) {
+            if (state == IN_FILES) {
+                if (reader.hasNext()) {
+                    return readFile();
+                }
+                reader.endArray();
+                state = IN_REPORT;
+            } else if (state == START) {
+                reader.beginObject();
+                state = IN_REPORT;
+            } else if (!reader.hasNext()) {
+                reader.endObject();
+                state = END;
+            } else {
+                String name = reader.nextName();
+                if (name.equals("files") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    state = IN_FILES;
+                } else if (name.equals("headers") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                    readHeaders();
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Close
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Read headers array
+     *
+     * @throws IOException IOException
+     */
+    private void readHeaders() throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ScanCodeHeader header = new ScanCodeHeader();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("tool_name")) {
+                    header.toolName = nextString();
+                } else if (name.equals("tool_version")) {
+                    header.toolVersion = nextString();
+                } else if (name.equals("start_timestamp")) {
+                    header.startTimestamp = nextString();
+                } else if (name.equals("end_timestamp")) {
+                    header.endTimestamp = nextString();
+                } else if (name.equals("extra_data") && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (reader.nextName().equals("files_count")) {
+                            header.filesCount = (int) nextLong();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            headers.add(header);
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Read file record
+     *
+     * @return file
+     * @throws IOException IOException
+     */
+    private ScanCodeFile readFile() throws IOException {
+        ScanCodeFile file = new ScanCodeFile();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("path")) {
+                file.path = nextString();
+            } else if (name.equals("type")) {
+                file.type = intern(nextString());
+            } else if (name.equals("size")) {
+                file.size = nextLong();
+            } else if (name.equals("sha1")) {
+                file.sha1 = nextString();
+            } else if (name.equals("md5")) {
+                file.md5 = nextString();
+            } else if (name.equals("mime_type")) {
+                file.mimeType = intern(nextString());
+            } else if (name.equals("programming_language")) {
+                file.programmingLanguage = intern(nextString());
+            } else if (name.equals("is_binary")) {
+                file.binary = nextBoolean();
+            } else if (name.equals("files_count")) {
+                file.filesCount = (int) nextLong();
+            } else if (name.equals("dirs_count")) {
+                file.dirsCount = (int) nextLong();
+            } else if (name.equals("size_count")) {
+                file.sizeCount = nextLong();
+            } else if (name.equals("licenses") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    file.licenses.add(readLicense());
+                }
+                reader.endArray();
+            } else if (name.equals("license_expressions") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    file.licenseExpressions.add(intern(nextString()));
+                }
+                reader.endArray();
+            } else if (name.equals("copyrights")) {
+                readStatements(file.copyrights, "value");
+            } else if (name.equals("holders")) {
+                readStatements(file.holders, "value");
+            } else if (name.equals("authors")) {
+                readStatements(file.authors, "value");
+            } else if (name.equals("emails")) {
+                readStatements(file.emails, "email");
+            } else if (name.equals("urls")) {
+                readStatements(file.urls, "url");
+            } else if (name.equals("scan_errors") && reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    file.scanErrors.add(nextString());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return file;
+    }
+
+    /**
+     * Read license object
+     *
+     * @return license
+     * @throws IOException IOException
+     */
+    private ScanCodeLicense readLicense() throws IOException {
+        ScanCodeLicense license = new ScanCodeLicense();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("key")) {
+                license.key = intern(nextString());
+            } else if (name.equals("score")) {
+                license.score = nextDouble();
+            } else if (name.equals("name")) {
+                license.name = intern(nextString());
+            } else if (name.equals("short_name")) {
+                license.shortName = intern(nextString());
+            } else if (name.equals("category")) {
+                license.category = intern(nextString());
+            } else if (name.equals("spdx_license_key")) {
+                license.spdxLicenseKey = intern(nextString());
+            } else if (name.equals("start_line")) {
+                license.startLine = (int) nextLong();
+            } else if (name.equals("end_line")) {
+                license.endLine = (int) nextLong();
+            } else if (name.equals("matched_rule") && reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String ruleName = reader.nextName();
+                    if (ruleName.equals("identifier")) {
+                        license.ruleIdentifier = intern(nextString());
+                    } else if (ruleName.equals("license_expression")) {
+                        license.ruleLicenseExpression = intern(nextString());
+                    } else if (ruleName.equals("matcher")) {
+                        license.matcher = intern(nextString());
+                    } else if (ruleName.equals("matched_length")) {
+                        license.matchedLength = (int) nextLong();
+                    } else if (ruleName.equals("match_coverage")) {
+                        license.matchCoverage = nextDouble();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return license;
+    }
+
+    /**
+     * Read array of line ranged values
+     *
+     * @param statements target
+     * @param valueName  name of the value field
+     * @throws IOException IOException
+     */
+    private void readStatements(List<ScanCodeStatement> statements, String valueName) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = null;
+            int startLine = 0;
+            int endLine = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(valueName)) {
+                    value = nextString();
+                } else if (name.equals("start_line")) {
+                    startLine = (int) nextLong();
+                } else if (name.equals("end_line")) {
+                    endLine = (int) nextLong();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            statements.add(new ScanCodeStatement(value, startLine, endLine));
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Read string, null or other scalar as text
+     *
+     * @return string or null
+     * @throws IOException IOException
+     */
+    private String nextString() throws IOException {
+        JsonStreamReader.Token token = reader.peek();
+        if (token == JsonStreamReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonStreamReader.Token.BEGIN_OBJECT || token == JsonStreamReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        return token == JsonStreamReader.Token.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+    }
+
+    /**
+     * Read number, 0 if null
+     *
+     * @return number
+     * @throws IOException IOException
+     */
+    private long nextLong() throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.NUMBER) {
+            reader.skipValue();
+            return 0;
+        }
+        return reader.nextLong();
+    }
+
+    /**
+     * Read number, 0 if null
+     *
+     * @return number
+     * @throws IOException IOException
+     */
+    private double nextDouble() throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.NUMBER) {
+            reader.skipValue();
+            return 0;
+        }
+        return reader.nextDouble();
+    }
+
+    /**
+     * Read boolean, false if null
+     *
+     * @return boolean
+     * @throws IOException IOException
+     */
+    private boolean nextBoolean() throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BOOLEAN) {
+            reader.skipValue();
+            return false;
+        }
+        return reader.nextBoolean();
+    }
+
+    /**
+     * Intern string in the bounded table
+     *
+     * @param value value
+     * @return shared instance
+     */
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = interned.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (interned.size() >= MAX_INTERNED) {
+            interned.clear();
+        }
+        interned.put(value, value);
+        return value;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param in input
+     */
+    public ScanCodeReader(Reader in) {
+        this.reader = new JsonStreamReader(in);
+    }
+}
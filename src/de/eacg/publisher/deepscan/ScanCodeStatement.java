@@ -0,0 +1,69 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * Line ranged value found by ScanCode: a copyright, holder, author, email or url
+ */
+public final class ScanCodeStatement {
+    /**
+     * Value
+     */
+    private final String value;
+    /**
+     * Start line
+     */
+    private final int startLine;
+    /**
+     * End line
+     */
+    private final int endLine;
+
+    /**
+     * Get value
+     *
+     * @return value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get start line
+     *
+     * @return line
+     */
+    public int getStartLine() {
+        return startLine;
+    }
+
+    /**
+     * Get end line
+     *
+     * @return line
+     */
+    public int getEndLine() {
+        return endLine;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return value + " (" + startLine + "-" + endLine + ")";
+    }
+
+    /**
+     * Constructor
+     *
+     * @param value     value
+     * @param startLine start line
+     * @param endLine   end line
+     */
+    public ScanCodeStatement(String value, int startLine, int endLine) {
+        this.value = value;
+        this.startLine = startLine;
+        this.endLine = endLine;
+    }
+}
@@ -0,0 +1,227 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streaming writer for ScanCode compatible reports. File records are written as they come,
+ * one per line; the headers follow the files array so they can carry the end timestamp and
+ * file count. {@link ScanCodeReader} reads either order.
+ */
+public class ScanCodeWriter implements Closeable {
+    /**
+     * Output
+     */
+    private final Writer out;
+    /**
+     * Records written
+     */
+    private int count;
+    /**
+     * Headers written
+     */
+    private boolean finished;
+
+    /**
+     * Write file record, may be called from several threads
+     *
+     * @param file file
+     * @throws IOException IOException
+     */
+    public synchronized void write(ScanCodeFile file) throws IOException {
+        StringBuilder builder = new StringBuilder(512);
+        builder.append(count++ == 0 ? "\n" : ",\n");
+        String name = file.path.substring(file.path.lastIndexOf('/') + 1);
+        int dot = file.isFile() ? name.lastIndexOf('.') : -1;
+        builder.append("{\"path\":");
+        quote(builder, file.path);
+        builder.append(",\"type\":");
+        quote(builder, file.type);
+        builder.append(",\"name\":");
+        quote(builder, name);
+        builder.append(",\"base_name\":");
+        quote(builder, dot > 0 ? name.substring(0, dot) : name);
+        builder.append(",\"extension\":");
+        quote(builder, dot > 0 ? name.substring(dot) : "");
+        builder.append(",\"size\":").append(file.size);
+        builder.append(",\"sha1\":");
+        quote(builder, file.sha1);
+        builder.append(",\"md5\":");
+        quote(builder, file.md5);
+        builder.append(",\"mime_type\":");
+        quote(builder, file.mimeType);
+        builder.append(",\"programming_language\":");
+        quote(builder, file.programmingLanguage);
+        builder.append(",\"is_binary\":").append(file.binary);
+        builder.append(",\"is_text\":").append(file.isFile() && !file.binary);
+        builder.append(",\"licenses\":[");
+        for (int i = 0; i < file.licenses.size(); i++) {
+            ScanCodeLicense license = file.licenses.get(i);
+            builder.append(i == 0 ? "{" : ",{");
+            builder.append("\"key\":");
+            quote(builder, license.key);
+            builder.append(",\"score\":").append(license.score);
+            builder.append(",\"name\":");
+            quote(builder, license.name);
+            builder.append(",\"short_name\":");
+            quote(builder, license.shortName);
+            builder.append(",\"category\":");
+            quote(builder, license.category);
+            builder.append(",\"spdx_license_key\":");
+            quote(builder, license.spdxLicenseKey);
+            builder.append(",\"start_line\":").append(license.startLine);
+            builder.append(",\"end_line\":").append(license.endLine);
+            builder.append(",\"matched_rule\":{\"identifier\":");
+            quote(builder, license.ruleIdentifier);
+            builder.append(",\"license_expression\":");
+            quote(builder, license.ruleLicenseExpression);
+            builder.append(",\"matcher\":");
+            quote(builder, license.matcher);
+            builder.append(",\"matched_length\":").append(license.matchedLength);
+            builder.append(",\"match_coverage\":").append(license.matchCoverage);
+            builder.append("}}");
+        }
+        builder.append("],\"license_expressions\":[");
+        for (int i = 0; i < file.licenseExpressions.size(); i++) {
+            builder.append(i == 0 ? "" : ",");
+            quote(builder, file.licenseExpressions.get(i));
+        }
+        builder.append("]");
+        appendStatements(builder, "copyrights", "value", file.copyrights);
+        appendStatements(builder, "holders", "value", file.holders);
+        appendStatements(builder, "authors", "value", file.authors);
+        appendStatements(builder, "emails", "email", file.emails);
+        appendStatements(builder, "urls", "url", file.urls);
+        builder.append(",\"files_count\":").append(file.filesCount);
+        builder.append(",\"dirs_count\":").append(file.dirsCount);
+        builder.append(",\"size_count\":").append(file.sizeCount);
+        builder.append(",\"scan_errors\":[");
+        for (int i = 0; i < file.scanErrors.size(); i++) {
+            builder.append(i == 0 ? "" : ",");
+            quote(builder, file.scanErrors.get(i));
+        }
+        builder.append("]}");
+        out.append(builder);
+    }
+
+    /**
+     * Close the files array and write the header
+     *
+     * @param header header
+     * @throws IOException IOException
+     */
+    public synchronized void finish(ScanCodeHeader header) throws IOException {
+        StringBuilder builder = new StringBuilder(256);
+        builder.append("\n],\"headers\":[{\"tool_name\":");
+        quote(builder, header.toolName);
+        builder.append(",\"tool_version\":");
+        quote(builder, header.toolVersion);
+        builder.append(",\"start_timestamp\":");
+        quote(builder, header.startTimestamp);
+        builder.append(",\"end_timestamp\":");
+        quote(builder, header.endTimestamp);
+        builder.append(",\"message\":null,\"errors\":[],\"extra_data\":{\"files_count\":").append(header.filesCount);
+        builder.append("}}]}\n");
+        out.append(builder);
+        out.flush();
+        finished = true;
+    }
+
+    /**
+     * Get records written
+     *
+     * @return count
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Close, writes an empty header if none was written
+     *
+     * @throws IOException IOException
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (!finished) {
+                finish(new ScanCodeHeader());
+            }
+        }
+        out.close();
+    }
+
+    /**
+     * Append array of line ranged values
+     *
+     * @param builder    builder
+     * @param field      array field
+     * @param valueName  name of the value field
+     * @param statements statements
+     */
+    private static void appendStatements(StringBuilder builder, String field, String valueName, List<ScanCodeStatement> statements) {
+        builder.append(",\"").append(field).append("\":[");
+        for (int i = 0; i < statements.size(); i++) {
+            ScanCodeStatement statement = statements.get(i);
+            builder.append(i == 0 ? "{\"" : ",{\"").append(valueName).append("\":");
+            quote(builder, statement.getValue());
+            builder.append(",\"start_line\":").append(statement.getStartLine());
+            builder.append(",\"end_line\":").append(statement.getEndLine()).append('}');
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Append JSON string or null
+     *
+     * @param builder builder
+     * @param value   value
+     */
+    static void quote(StringBuilder builder, String value) {
+        if (value == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    /**
+     * Constructor, opens the report and its files array
+     *
+     * @param out output
+     * @throws IOException IOException
+     */
+    public ScanCodeWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write("{\"files\":[");
+    }
+}
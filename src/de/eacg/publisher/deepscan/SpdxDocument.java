@@ -0,0 +1,210 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact model of an SPDX document. Licenses are canonical: every license id and every
+ * distinct extracted text is stored once, however often it occurs.
+ */
+public final class SpdxDocument {
+    /**
+     * Spec version
+     */
+    String specVersion;
+    /**
+     * Name
+     */
+    String name;
+    /**
+     * Creation time
+     */
+    String created;
+    /**
+     * Creators
+     */
+    final List<String> creators = new ArrayList<String>(1);
+    /**
+     * Data license, null if absent
+     */
+    SpdxLicense dataLicense;
+    /**
+     * Packages
+     */
+    final List<SpdxPackage> packages = new ArrayList<SpdxPackage>(1);
+    /**
+     * Files
+     */
+    final List<SpdxFile> files = new ArrayList<SpdxFile>();
+    /**
+     * Interned license ids
+     */
+    private final Map<String, String> licenseIds = new HashMap<String, String>();
+    /**
+     * Distinct extracted texts and comments, looked up by hash
+     */
+    private final Map<String, String> texts = new HashMap<String, String>();
+    /**
+     * Canonical licenses by id, then by extracted text, listed licenses under a null text
+     */
+    private final Map<String, Map<String, SpdxLicense>> licenses = new LinkedHashMap<String, Map<String, SpdxLicense>>();
+    /**
+     * Extracted licensing info occurrences read
+     */
+    private int extractedOccurrences;
+
+    /**
+     * Get spec version
+     *
+     * @return version
+     */
+    public String getSpecVersion() {
+        return specVersion;
+    }
+
+    /**
+     * Get name
+     *
+     * @return name or null
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get creation time
+     *
+     * @return time
+     */
+    public String getCreated() {
+        return created;
+    }
+
+    /**
+     * Get creators
+     *
+     * @return creators
+     */
+    public List<String> getCreators() {
+        return creators;
+    }
+
+    /**
+     * Get data license
+     *
+     * @return license or null
+     */
+    public SpdxLicense getDataLicense() {
+        return dataLicense;
+    }
+
+    /**
+     * Get packages
+     *
+     * @return packages
+     */
+    public List<SpdxPackage> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Get files
+     *
+     * @return files
+     */
+    public List<SpdxFile> getFiles() {
+        return files;
+    }
+
+    /**
+     * Get distinct licenses
+     *
+     * @return licenses
+     */
+    public List<SpdxLicense> getLicenses() {
+        List<SpdxLicense> aLicenses = new ArrayList<SpdxLicense>();
+        for (Map<String, SpdxLicense> byText : licenses.values()) {
+            aLicenses.addAll(byText.values());
+        }
+        return aLicenses;
+    }
+
+    /**
+     * Get distinct extracted texts and comments
+     *
+     * @return texts
+     */
+    public Collection<String> getExtractedTexts() {
+        return texts.values();
+    }
+
+    /**
+     * Get extracted licensing info occurrences read, before deduplication
+     *
+     * @return count
+     */
+    public int getExtractedOccurrences() {
+        return extractedOccurrences;
+    }
+
+    /**
+     * Get canonical listed license
+     *
+     * @param licenseId license id
+     * @return license
+     */
+    SpdxLicense getLicense(String licenseId) {
+        return getLicense(licenseId, null, null);
+    }
+
+    /**
+     * Get canonical license
+     *
+     * @param licenseId     license id
+     * @param extractedText extracted text or null
+     * @param comment       comment or null
+     * @return license
+     */
+    SpdxLicense getLicense(String licenseId, String extractedText, String comment) {
+        String id = intern(licenseIds, licenseId);
+        String text = intern(texts, extractedText);
+        if (text != null) {
+            extractedOccurrences++;
+        }
+        Map<String, SpdxLicense> byText = licenses.get(id);
+        if (byText == null) {
+            byText = new HashMap<String, SpdxLicense>(2);
+            licenses.put(id, byText);
+        }
+        SpdxLicense license = byText.get(text);
+        if (license == null) {
+            String aComment = comment != null && comment.equals(text) ? text : intern(texts, comment);
+            license = new SpdxLicense(id, text, aComment);
+            byText.put(text, license);
+        }
+        return license;
+    }
+
+    /**
+     * Intern string in table
+     *
+     * @param table table
+     * @param value value
+     * @return shared instance
+     */
+    private static String intern(Map<String, String> table, String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = table.get(value);
+        if (shared == null) {
+            table.put(value, value);
+            shared = value;
+        }
+        return shared;
+    }
+}
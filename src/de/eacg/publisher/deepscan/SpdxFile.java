@@ -0,0 +1,75 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File of an SPDX document
+ */
+public final class SpdxFile {
+    /**
+     * File names, ScanCode 3.1.1 merges all files into one node with many names
+     */
+    final List<String> fileNames = new ArrayList<String>(1);
+    /**
+     * Checksums, as "ALGORITHM: value"
+     */
+    final List<String> checksums = new ArrayList<String>(1);
+    /**
+     * Licenses found in file
+     */
+    final List<SpdxLicense> licenseInfoInFile = new ArrayList<SpdxLicense>();
+    /**
+     * Concluded license, null if absent
+     */
+    SpdxLicense licenseConcluded;
+    /**
+     * Copyright text
+     */
+    String copyrightText;
+
+    /**
+     * Get file names
+     *
+     * @return names
+     */
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    /**
+     * Get checksums
+     *
+     * @return checksums, as "ALGORITHM: value"
+     */
+    public List<String> getChecksums() {
+        return checksums;
+    }
+
+    /**
+     * Get licenses found in file
+     *
+     * @return licenses
+     */
+    public List<SpdxLicense> getLicenseInfoInFile() {
+        return licenseInfoInFile;
+    }
+
+    /**
+     * Get concluded license
+     *
+     * @return license or null
+     */
+    public SpdxLicense getLicenseConcluded() {
+        return licenseConcluded;
+    }
+
+    /**
+     * Get copyright text
+     *
+     * @return text or null
+     */
+    public String getCopyrightText() {
+        return copyrightText;
+    }
+}
@@ -0,0 +1,224 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates an SPDX document for a tree: one file entry with its SHA-1 per file and the package
+ * verification code, both from {@link FileDigests}, so regenerating after a change only hashes
+ * the changed files. Licenses and copyrights come from a ScanCode compatible report if one is
+ * given, otherwise they are NOASSERTION.
+ */
+public class SpdxGenerator {
+    /**
+     * Spec version written
+     */
+    private static final String SPEC_VERSION = "SPDX-2.1";
+    /**
+     * Creator written
+     */
+    private static final String CREATOR = "Tool: ts-deepscan-spdx-generator";
+    /**
+     * SPDX timestamp format, UTC
+     */
+    private static final String TIMESTAMP = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+    /**
+     * Extracted text of ScanCode licenses without SPDX id, as ScanCode writes it
+     */
+    private static final String SCANCODE_TEXT = "See details at https://github.com/nexB/scancode-toolkit/blob/develop/src/licensedcode/data/licenses/%s.yml\n";
+
+    /**
+     * Generate document
+     *
+     * @param digests digests, up to date
+     * @param name    package and document name
+     * @param scan    report records by path or null
+     * @return document
+     */
+    public static SpdxDocument generate(FileDigests digests, String name, Map<String, ScanCodeFile> scan) {
+        SpdxDocument document = new SpdxDocument();
+        document.specVersion = SPEC_VERSION;
+        document.name = name;
+        SimpleDateFormat format = new SimpleDateFormat(TIMESTAMP, Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        document.created = format.format(new Date());
+        document.creators.add(CREATOR);
+        document.dataLicense = document.getLicense("CC0-1.0");
+        SpdxLicense noAssertion = document.getLicense("NOASSERTION");
+        SpdxLicense none = document.getLicense("NONE");
+
+        SpdxPackage aPackage = new SpdxPackage();
+        aPackage.name = name;
+        aPackage.downloadLocation = "NOASSERTION";
+        aPackage.verificationCode = digests.getVerificationCode();
+        for (String excluded : digests.getExcluded()) {
+            aPackage.verificationCodeExcludedFiles.add("./" + excluded);
+        }
+        aPackage.licenseConcluded = noAssertion;
+        aPackage.licenseDeclared = noAssertion;
+        aPackage.copyrightText = "NOASSERTION";
+        document.packages.add(aPackage);
+
+        Path rootName = digests.getRoot().getFileName();
+        String prefix = rootName != null ? rootName.toString() + "/" : "";
+        Set<SpdxLicense> fromFiles = new LinkedHashSet<SpdxLicense>();
+        for (Map.Entry<String, String> entry : digests.getDigests().entrySet()) {
+            if (digests.isExcluded(entry.getKey())) {
+                continue;
+            }
+            SpdxFile file = new SpdxFile();
+            file.fileNames.add("./" + entry.getKey());
+            file.checksums.add("SHA1: " + entry.getValue());
+            file.licenseConcluded = noAssertion;
+            ScanCodeFile record = scan != null ? scan.get(prefix + entry.getKey()) : null;
+            if (record == null && scan != null) {
+                record = scan.get(entry.getKey());
+            }
+            if (record == null) {
+                file.licenseInfoInFile.add(noAssertion);
+                file.copyrightText = "NOASSERTION";
+            } else {
+                for (ScanCodeLicense license : record.getLicenses()) {
+                    SpdxLicense spdx = getLicense(document, license);
+                    if (!file.licenseInfoInFile.contains(spdx)) {
+                        file.licenseInfoInFile.add(spdx);
+                    }
+                }
+                if (file.licenseInfoInFile.isEmpty()) {
+                    file.licenseInfoInFile.add(none);
+                }
+                fromFiles.addAll(file.licenseInfoInFile);
+                StringBuilder copyrights = new StringBuilder();
+                for (ScanCodeStatement copyright : record.getCopyrights()) {
+                    if (copyright.getValue() != null) {
+                        copyrights.append(copyrights.length() == 0 ? "" : "\n").append(copyright.getValue());
+                    }
+                }
+                file.copyrightText = copyrights.length() > 0 ? copyrights.toString() : "NONE";
+            }
+            document.files.add(file);
+        }
+        fromFiles.remove(none);
+        if (fromFiles.isEmpty()) {
+            fromFiles.add(noAssertion);
+        }
+        aPackage.licenseInfoFromFiles.addAll(fromFiles);
+        return document;
+    }
+
+    /**
+     * Load report records of files by path
+     *
+     * @param report ScanCode compatible report
+     * @return records by path
+     * @throws IOException IOException
+     */
+    public static Map<String, ScanCodeFile> loadScan(Path report) throws IOException {
+        Map<String, ScanCodeFile> records = new HashMap<String, ScanCodeFile>();
+        ScanCodeReader reader = ScanCodeReader.open(report);
+        try {
+            ScanCodeFile record;
+            while ((record = reader.next()) != null) {
+                if (record.isFile()) {
+                    records.put(record.getPath(), record);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+
+    /**
+     * Generate SPDX document for a tree. Fails without writing a document if any file couldn't
+     * be read, its verification code would be wrong.
+     *
+     * @param args [--threads n] [--state file] [--scan report.json] [--name name] [--output file.rdf] root
+     * @throws IOException IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path stateFile = null;
+        Path report = null;
+        Path output = null;
+        String name = null;
+        Path root = Paths.get(".");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--state") && i + 1 < args.length) {
+                stateFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--scan") && i + 1 < args.length) {
+                report = Paths.get(args[++i]);
+            } else if (args[i].equals("--name") && i + 1 < args.length) {
+                name = args[++i];
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else {
+                root = Paths.get(args[i]);
+            }
+        }
+        FileDigests digests = FileDigests.open(root, stateFile);
+        if (stateFile != null) {
+            digests.exclude(stateFile);
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            if (Files.exists(temp)) {
+                digests.exclude(temp);
+            }
+        }
+        if (output != null) {
+            digests.exclude(output);
+        }
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            digests.update(pool);
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        digests.save();
+        if (digests.getErrors() > 0) {
+            throw new IOException(digests.getErrors() + " file(s) below " + digests.getRoot() + " could not be read, no document written");
+        }
+        if (name == null) {
+            Path rootName = digests.getRoot().getFileName();
+            name = rootName != null ? rootName.toString() : "package";
+        }
+        SpdxDocument document = generate(digests, name, report != null ? loadScan(report) : null);
+        if (output != null) {
+            SpdxRdfWriter.write(document, output);
+        } else {
+            SpdxRdfWriter.write(document, System.out);
+            System.out.flush();
+        }
+        System.err.println(String.format("%s in %.2f s on %d threads, verification code %s",
+                digests, seconds, threads, digests.getVerificationCode()));
+    }
+
+    /**
+     * Get SPDX license of a ScanCode license, licenses without SPDX id as ScanCode references them
+     *
+     * @param document document
+     * @param license  ScanCode license
+     * @return license
+     */
+    private static SpdxLicense getLicense(SpdxDocument document, ScanCodeLicense license) {
+        if (license.getSpdxLicenseKey() != null) {
+            return document.getLicense(license.getSpdxLicenseKey());
+        }
+        return document.getLicense("LicenseRef-scancode-" + license.getKey(),
+                String.format(SCANCODE_TEXT, license.getKey()), license.getName());
+    }
+}
@@ -0,0 +1,79 @@
+package de.eacg.ecs.publisher.deepscan;
+
+/**
+ * License of an SPDX document, either a listed license referenced by id or an
+ * extracted licensing info with its text. Instances are shared by every occurrence.
+ */
+public final class SpdxLicense {
+    /**
+     * License id, e.g. "MIT" or "LicenseRef-scancode-unknown"
+     */
+    private final String licenseId;
+    /**
+     * Extracted text, null for listed licenses
+     */
+    private final String extractedText;
+    /**
+     * Comment, null if absent
+     */
+    private final String comment;
+
+    /**
+     * Get license id
+     *
+     * @return id
+     */
+    public String getLicenseId() {
+        return licenseId;
+    }
+
+    /**
+     * Get extracted text
+     *
+     * @return text or null for listed licenses
+     */
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    /**
+     * Get comment
+     *
+     * @return comment or null
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * Is extracted licensing info
+     *
+     * @return boolean
+     */
+    public boolean isExtracted() {
+        return extractedText != null;
+    }
+
+    /**
+     * To string
+     *
+     * @return text
+     */
+    @Override
+    public String toString() {
+        return licenseId;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param licenseId     license id
+     * @param extractedText extracted text or null
+     * @param comment       comment or null
+     */
+    SpdxLicense(String licenseId, String extractedText, String comment) {
+        this.licenseId = licenseId;
+        this.extractedText = extractedText;
+        this.comment = comment;
+    }
+}
@@ -0,0 +1,114 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Package of an SPDX document
+ */
+public final class SpdxPackage {
+    /**
+     * Name
+     */
+    String name;
+    /**
+     * Download location
+     */
+    String downloadLocation;
+    /**
+     * Package verification code
+     */
+    String verificationCode;
+    /**
+     * Files left out of the package verification code
+     */
+    final List<String> verificationCodeExcludedFiles = new ArrayList<String>();
+    /**
+     * Declared license, null if absent
+     */
+    SpdxLicense licenseDeclared;
+    /**
+     * Concluded license, null if absent
+     */
+    SpdxLicense licenseConcluded;
+    /**
+     * Licenses found in the files of the package
+     */
+    final List<SpdxLicense> licenseInfoFromFiles = new ArrayList<SpdxLicense>();
+    /**
+     * Copyright text
+     */
+    String copyrightText;
+
+    /**
+     * Get name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get download location
+     *
+     * @return location
+     */
+    public String getDownloadLocation() {
+        return downloadLocation;
+    }
+
+    /**
+     * Get package verification code
+     *
+     * @return code or null
+     */
+    public String getVerificationCode() {
+        return verificationCode;
+    }
+
+    /**
+     * Get files left out of the package verification code
+     *
+     * @return file names
+     */
+    public List<String> getVerificationCodeExcludedFiles() {
+        return verificationCodeExcludedFiles;
+    }
+
+    /**
+     * Get declared license
+     *
+     * @return license or null
+     */
+    public SpdxLicense getLicenseDeclared() {
+        return licenseDeclared;
+    }
+
+    /**
+     * Get concluded license
+     *
+     * @return license or null
+     */
+    public SpdxLicense getLicenseConcluded() {
+        return licenseConcluded;
+    }
+
+    /**
+     * Get licenses found in the files of the package
+     *
+     * @return licenses
+     */
+    public List<SpdxLicense> getLicenseInfoFromFiles() {
+        return licenseInfoFromFiles;
+    }
+
+    /**
+     * Get copyright text
+     *
+     * @return text or null
+     */
+    public String getCopyrightText() {
+        return copyrightText;
+    }
+}
@@ -0,0 +1,402 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming SPDX RDF/XML reader. The document is read with StAX in one pass into an
+ * {@link SpdxDocument}, where repeated ExtractedLicensingInfo blocks collapse into one
+ * canonical license per id and text.
+ */
+public class SpdxRdfReader {
+    /**
+     * RDF namespace constant
+     */
+    private static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    /**
+     * Input factory, DTDs and external entities disabled
+     */
+    private static final XMLInputFactory factory;
+
+    static {
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Document being read
+     */
+    private final SpdxDocument document = new SpdxDocument();
+    /**
+     * Open elements
+     */
+    private final Deque<Frame> frames = new ArrayDeque<Frame>();
+    /**
+     * Text of the current property
+     */
+    private final StringBuilder text = new StringBuilder();
+    /**
+     * Licenses by rdf:nodeID or rdf:about, for references to nodes defined earlier
+     */
+    private final Map<String, SpdxLicense> nodes = new HashMap<String, SpdxLicense>();
+
+    /**
+     * Read document
+     *
+     * @param file file
+     * @return document
+     * @throws IOException IOException
+     */
+    public static SpdxDocument read(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Read document
+     *
+     * @param in input
+     * @return document
+     * @throws IOException IOException, also for malformed XML
+     */
+    public static SpdxDocument read(InputStream in) throws IOException {
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                return new SpdxRdfReader().read(xml);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read all events
+     *
+     * @param xml xml
+     * @return document
+     * @throws XMLStreamException XMLStreamException
+     */
+    private SpdxDocument read(XMLStreamReader xml) throws XMLStreamException {
+        while (xml.hasNext()) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    startElement(xml);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (!frames.isEmpty() && !frames.peek().type) {
+                        text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    endElement();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Open type or property element, types start with an upper case letter
+     *
+     * @param xml xml
+     */
+    private void startElement(XMLStreamReader xml) {
+        String name = xml.getLocalName();
+        if (RDF.equals(xml.getNamespaceURI()) && name.equals("RDF")) {
+            return;
+        }
+        Frame frame = new Frame();
+        frame.name = name;
+        frame.type = Character.isUpperCase(name.charAt(0));
+        Frame parent = frames.peek();
+        if (frame.type) {
+            frame.node = createNode(name, parent);
+            frame.id = xml.getAttributeValue(RDF, "nodeID");
+            if (frame.id == null) {
+                frame.id = xml.getAttributeValue(RDF, "about");
+            }
+            if (parent != null) {
+                parent.hasChild = true;
+            }
+        } else {
+            frame.node = parent != null ? parent.node : null;
+            text.setLength(0);
+            String resource = xml.getAttributeValue(RDF, "resource");
+            String reference = xml.getAttributeValue(RDF, "nodeID");
+            if (resource != null) {
+                setResource(frame.node, name, resource);
+                frame.hasChild = true;
+            } else if (reference != null && nodes.containsKey(reference)) {
+                attach(frame.node, name, nodes.get(reference));
+                frame.hasChild = true;
+            }
+        }
+        frames.push(frame);
+    }
+
+    /**
+     * Close element, attaching finished nodes and literals to their owner
+     */
+    private void endElement() {
+        Frame frame = frames.poll();
+        if (frame == null) {
+            return;
+        }
+        Frame property = frames.peek();
+        if (frame.type) {
+            Object node = frame.node;
+            if (node instanceof LicenseBuilder) {
+                LicenseBuilder builder = (LicenseBuilder) node;
+                SpdxLicense license = document.getLicense(builder.licenseId, builder.extractedText, builder.comment);
+                if (frame.id != null) {
+                    nodes.put(frame.id, license);
+                }
+                node = license;
+            } else if (node instanceof ChecksumBuilder) {
+                node = ((ChecksumBuilder) node).algorithm + ": " + ((ChecksumBuilder) node).value;
+            }
+            if (property != null && !property.type) {
+                attach(property.node, property.name, node);
+            }
+        } else if (!frame.hasChild) {
+            setLiteral(frame.node, frame.name, text.toString().trim());
+        }
+    }
+
+    /**
+     * Create node for type element. Creation info and verification code are flattened into their owner.
+     *
+     * @param type   type
+     * @param parent parent property frame or null
+     * @return node
+     */
+    private Object createNode(String type, Frame parent) {
+        if (type.equals("SpdxDocument") || type.equals("CreationInfo")) {
+            return document;
+        } else if (type.equals("Package")) {
+            return new SpdxPackage();
+        } else if (type.equals("File")) {
+            return new SpdxFile();
+        } else if (type.equals("ExtractedLicensingInfo")) {
+            return new LicenseBuilder();
+        } else if (type.equals("Checksum")) {
+            return new ChecksumBuilder();
+        } else if (type.equals("PackageVerificationCode") && parent != null) {
+            return parent.node;
+        }
+        return null;
+    }
+
+    /**
+     * Attach child node to owner
+     *
+     * @param owner    owner
+     * @param property property
+     * @param child    child
+     */
+    private void attach(Object owner, String property, Object child) {
+        if (child instanceof SpdxLicense) {
+            setLicense(owner, property, (SpdxLicense) child);
+        } else if (child instanceof SpdxPackage) {
+            if (!document.packages.contains(child)) {
+                document.packages.add((SpdxPackage) child);
+            }
+        } else if (child instanceof SpdxFile) {
+            if (!document.files.contains(child)) {
+                document.files.add((SpdxFile) child);
+            }
+        } else if (child instanceof String && owner instanceof SpdxFile && property.equals("checksum")) {
+            ((SpdxFile) owner).checksums.add((String) child);
+        }
+    }
+
+    /**
+     * Set license property
+     *
+     * @param owner    owner
+     * @param property property
+     * @param license  license
+     */
+    private void setLicense(Object owner, String property, SpdxLicense license) {
+        if (owner instanceof SpdxFile) {
+            SpdxFile file = (SpdxFile) owner;
+            if (property.equals("licenseInfoInFile")) {
+                file.licenseInfoInFile.add(license);
+            } else if (property.equals("licenseConcluded")) {
+                file.licenseConcluded = license;
+            }
+        } else if (owner instanceof SpdxPackage) {
+            SpdxPackage aPackage = (SpdxPackage) owner;
+            if (property.equals("licenseInfoFromFiles")) {
+                aPackage.licenseInfoFromFiles.add(license);
+            } else if (property.equals("licenseDeclared")) {
+                aPackage.licenseDeclared = license;
+            } else if (property.equals("licenseConcluded")) {
+                aPackage.licenseConcluded = license;
+            }
+        } else if (owner == document && property.equals("dataLicense")) {
+            document.dataLicense = license;
+        }
+    }
+
+    /**
+     * Set resource property, listed licenses and NONE/NOASSERTION are referenced by uri
+     *
+     * @param owner    owner
+     * @param property property
+     * @param uri      uri
+     */
+    private void setResource(Object owner, String property, String uri) {
+        String value = uri.substring(Math.max(uri.lastIndexOf('/'), uri.lastIndexOf('#')) + 1);
+        if (value.equals("none") || value.equals("noassertion")) {
+            value = value.toUpperCase();
+        }
+        if (property.startsWith("license") || property.equals("dataLicense")) {
+            setLicense(owner, property, document.getLicense(value));
+        } else {
+            setLiteral(owner, property, value);
+        }
+    }
+
+    /**
+     * Set literal property
+     *
+     * @param owner    owner
+     * @param property property
+     * @param value    value
+     */
+    private void setLiteral(Object owner, String property, String value) {
+        if (owner instanceof LicenseBuilder) {
+            LicenseBuilder builder = (LicenseBuilder) owner;
+            if (property.equals("licenseId")) {
+                builder.licenseId = value;
+            } else if (property.equals("extractedText")) {
+                builder.extractedText = value;
+            } else if (property.equals("comment")) {
+                builder.comment = value;
+            }
+        } else if (owner instanceof SpdxFile) {
+            SpdxFile file = (SpdxFile) owner;
+            if (property.equals("fileName")) {
+                file.fileNames.add(value);
+            } else if (property.equals("copyrightText")) {
+                file.copyrightText = value;
+            }
+        } else if (owner instanceof ChecksumBuilder) {
+            if (property.equals("algorithm")) {
+                ((ChecksumBuilder) owner).algorithm = value;
+            } else if (property.equals("checksumValue")) {
+                ((ChecksumBuilder) owner).value = value;
+            }
+        } else if (owner instanceof SpdxPackage) {
+            SpdxPackage aPackage = (SpdxPackage) owner;
+            if (property.equals("name")) {
+                aPackage.name = value;
+            } else if (property.equals("downloadLocation")) {
+                aPackage.downloadLocation = value;
+            } else if (property.equals("packageVerificationCodeValue")) {
+                aPackage.verificationCode = value;
+            } else if (property.equals("packageVerificationCodeExcludedFile")) {
+                aPackage.verificationCodeExcludedFiles.add(value);
+            } else if (property.equals("copyrightText")) {
+                aPackage.copyrightText = value;
+            }
+        } else if (owner == document) {
+            if (property.equals("specVersion")) {
+                document.specVersion = value;
+            } else if (property.equals("name")) {
+                document.name = value;
+            } else if (property.equals("created")) {
+                document.created = value;
+            } else if (property.equals("creator")) {
+                document.creators.add(value);
+            }
+        }
+    }
+
+    /**
+     * Open element
+     */
+    private static final class Frame {
+        /**
+         * Local name
+         */
+        private String name;
+        /**
+         * Is type element
+         */
+        private boolean type;
+        /**
+         * Node of type element, owner node of property element
+         */
+        private Object node;
+        /**
+         * rdf:nodeID or rdf:about of type element
+         */
+        private String id;
+        /**
+         * Property has a nested node or resource instead of a literal
+         */
+        private boolean hasChild;
+    }
+
+    /**
+     * Extracted licensing info being read
+     */
+    private static final class LicenseBuilder {
+        /**
+         * License id
+         */
+        private String licenseId;
+        /**
+         * Extracted text
+         */
+        private String extractedText;
+        /**
+         * Comment
+         */
+        private String comment;
+    }
+
+    /**
+     * Checksum being read
+     */
+    private static final class ChecksumBuilder {
+        /**
+         * Algorithm
+         */
+        private String algorithm;
+        /**
+         * Value
+         */
+        private String value;
+    }
+
+    /**
+     * Constructor
+     */
+    private SpdxRdfReader() {
+    }
+}
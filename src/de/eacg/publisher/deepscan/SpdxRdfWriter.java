@@ -0,0 +1,325 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Streaming writer for SPDX RDF/XML documents in the layout ScanCode writes and
+ * {@link SpdxRdfReader} reads. Listed licenses and NONE/NOASSERTION are written as resources,
+ * extracted licenses inline on first use and by rdf:nodeID after that.
+ */
+public class SpdxRdfWriter {
+    /**
+     * RDF namespace
+     */
+    private static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    /**
+     * RDF schema namespace
+     */
+    private static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+    /**
+     * SPDX terms namespace
+     */
+    private static final String SPDX = "http://spdx.org/rdf/terms#";
+    /**
+     * Listed licenses namespace
+     */
+    private static final String LICENSES = "http://spdx.org/licenses/";
+    /**
+     * Base of element uris
+     */
+    private static final String BASE = "http://www.spdx.org/tools#";
+    /**
+     * Output factory
+     */
+    private static final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    /**
+     * Output
+     */
+    private final XMLStreamWriter xml;
+    /**
+     * Node ids of extracted licenses already written
+     */
+    private final Map<SpdxLicense, String> nodes = new HashMap<SpdxLicense, String>();
+    /**
+     * Element depth, for indentation
+     */
+    private int depth;
+
+    /**
+     * Write document
+     *
+     * @param document document
+     * @param file     file
+     * @throws IOException IOException
+     */
+    public static void write(SpdxDocument document, Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        try {
+            write(document, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write document as UTF-8, the stream is left open
+     *
+     * @param document document
+     * @param out      output
+     * @throws IOException IOException
+     */
+    public static void write(SpdxDocument document, OutputStream out) throws IOException {
+        try {
+            XMLStreamWriter xml = factory.createXMLStreamWriter(out, "UTF-8");
+            try {
+                new SpdxRdfWriter(xml).writeDocument(document);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Write document
+     *
+     * @param document document
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void writeDocument(SpdxDocument document) throws XMLStreamException {
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.setPrefix("rdf", RDF);
+        xml.setPrefix("rdfs", RDFS);
+        xml.setPrefix("ns1", SPDX);
+        start(RDF, "RDF");
+        xml.writeNamespace("rdf", RDF);
+        xml.writeNamespace("rdfs", RDFS);
+        xml.writeNamespace("ns1", SPDX);
+        start(SPDX, "SpdxDocument");
+        xml.writeAttribute(RDF, "about", BASE + "SPDXRef-DOCUMENT");
+        literal("specVersion", document.specVersion);
+        literal("name", document.name);
+        if (document.created != null || !document.creators.isEmpty()) {
+            start(SPDX, "creationInfo");
+            start(SPDX, "CreationInfo");
+            literal("created", document.created);
+            for (String creator : document.creators) {
+                literal("creator", creator);
+            }
+            end();
+            end();
+        }
+        license("dataLicense", document.dataLicense);
+        for (int i = 0; i < document.packages.size(); i++) {
+            writePackage(document.packages.get(i), i);
+        }
+        for (int i = 0; i < document.files.size(); i++) {
+            writeFile(document.files.get(i), i);
+        }
+        end();
+        end();
+        xml.writeCharacters("\n");
+        xml.writeEndDocument();
+    }
+
+    /**
+     * Write package
+     *
+     * @param aPackage package
+     * @param index    index in the document
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void writePackage(SpdxPackage aPackage, int index) throws XMLStreamException {
+        start(SPDX, "describesPackage");
+        start(SPDX, "Package");
+        xml.writeAttribute(RDF, "about", BASE + "SPDXRef-Package" + (index > 0 ? "-" + index : ""));
+        literal("name", aPackage.name);
+        if (aPackage.downloadLocation == null || aPackage.downloadLocation.equals("NOASSERTION")
+                || aPackage.downloadLocation.equals("NONE")) {
+            empty("downloadLocation", SPDX + (aPackage.downloadLocation == null ? "noassertion" : aPackage.downloadLocation.toLowerCase()));
+        } else {
+            literal("downloadLocation", aPackage.downloadLocation);
+        }
+        if (aPackage.verificationCode != null) {
+            start(SPDX, "packageVerificationCode");
+            start(SPDX, "PackageVerificationCode");
+            literal("packageVerificationCodeValue", aPackage.verificationCode);
+            for (String excluded : aPackage.verificationCodeExcludedFiles) {
+                literal("packageVerificationCodeExcludedFile", excluded);
+            }
+            end();
+            end();
+        }
+        license("licenseConcluded", aPackage.licenseConcluded);
+        license("licenseDeclared", aPackage.licenseDeclared);
+        for (SpdxLicense license : aPackage.licenseInfoFromFiles) {
+            license("licenseInfoFromFiles", license);
+        }
+        literal("copyrightText", aPackage.copyrightText);
+        end();
+        end();
+    }
+
+    /**
+     * Write file
+     *
+     * @param file  file
+     * @param index index in the document
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void writeFile(SpdxFile file, int index) throws XMLStreamException {
+        start(SPDX, "referencesFile");
+        start(SPDX, "File");
+        xml.writeAttribute(RDF, "about", BASE + "SPDXRef-File-" + index);
+        for (String fileName : file.fileNames) {
+            literal("fileName", fileName);
+        }
+        for (String checksum : file.checksums) {
+            int colon = checksum.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            start(SPDX, "checksum");
+            start(SPDX, "Checksum");
+            literal("algorithm", checksum.substring(0, colon).trim());
+            literal("checksumValue", checksum.substring(colon + 1).trim());
+            end();
+            end();
+        }
+        license("licenseConcluded", file.licenseConcluded);
+        for (SpdxLicense license : file.licenseInfoInFile) {
+            license("licenseInfoInFile", license);
+        }
+        literal("copyrightText", file.copyrightText);
+        end();
+        end();
+    }
+
+    /**
+     * Write license property, nothing if the license is null
+     *
+     * @param property property
+     * @param license  license or null
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void license(String property, SpdxLicense license) throws XMLStreamException {
+        if (license == null) {
+            return;
+        }
+        String id = license.getLicenseId();
+        if (!license.isExtracted()) {
+            empty(property, id.equals("NONE") || id.equals("NOASSERTION") ? SPDX + id.toLowerCase() : LICENSES + id);
+            return;
+        }
+        String node = nodes.get(license);
+        if (node != null) {
+            indent();
+            xml.writeEmptyElement(SPDX, property);
+            xml.writeAttribute(RDF, "nodeID", node);
+            return;
+        }
+        node = "license" + nodes.size();
+        nodes.put(license, node);
+        start(SPDX, property);
+        start(SPDX, "ExtractedLicensingInfo");
+        xml.writeAttribute(RDF, "nodeID", node);
+        literal("licenseId", id);
+        literal("extractedText", license.getExtractedText());
+        if (license.getComment() != null) {
+            indent();
+            xml.writeStartElement(RDFS, "comment");
+            xml.writeCharacters(license.getComment());
+            xml.writeEndElement();
+        }
+        end();
+        end();
+    }
+
+    /**
+     * Write literal property, nothing if the value is null
+     *
+     * @param property property
+     * @param value    value or null
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void literal(String property, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        indent();
+        xml.writeStartElement(SPDX, property);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Write resource property
+     *
+     * @param property property
+     * @param resource resource uri
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void empty(String property, String resource) throws XMLStreamException {
+        indent();
+        xml.writeEmptyElement(SPDX, property);
+        xml.writeAttribute(RDF, "resource", resource);
+    }
+
+    /**
+     * Open element with children
+     *
+     * @param namespace namespace
+     * @param name      local name
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void start(String namespace, String name) throws XMLStreamException {
+        indent();
+        xml.writeStartElement(namespace, name);
+        depth++;
+    }
+
+    /**
+     * Close element with children
+     *
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void end() throws XMLStreamException {
+        depth--;
+        indent();
+        xml.writeEndElement();
+    }
+
+    /**
+     * Start a new line at the current depth
+     *
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void indent() throws XMLStreamException {
+        StringBuilder builder = new StringBuilder(1 + 2 * depth);
+        builder.append('\n');
+        for (int i = 0; i < depth; i++) {
+            builder.append("  ");
+        }
+        xml.writeCharacters(builder.toString());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param xml output
+     */
+    private SpdxRdfWriter(XMLStreamWriter xml) {
+        this.xml = xml;
+    }
+}
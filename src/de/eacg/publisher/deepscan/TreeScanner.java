@@ -0,0 +1,733 @@
+package de.eacg.ecs.publisher.deepscan;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scans a source tree on a fork/join pool and streams ScanCode compatible file records.
+ * Every directory is a task listing its entries with {@link Files#walkFileTree} one level deep,
+ * forking a task per subdirectory and per batch of files, so idle workers steal whole subtrees.
+ * Only the first {@link #HEADER_BYTES} of a file are read; binaries are recognized by their magic
+ * bytes or a NUL byte and skipped. Source files go through the {@link HeaderExtractor}, other text
+ * files through the {@link LicenseMatcher}.
+ */
+public class TreeScanner {
+    /**
+     * Bytes read from the start of each file
+     */
+    public static final int HEADER_BYTES = Integer.getInteger(TreeScanner.class.getName() + ".headerBytes", HeaderExtractor.MAX_HEADER);
+    /**
+     * Files per task
+     */
+    private static final int BATCH = 64;
+    /**
+     * Bytes read at once when hashing past the header
+     */
+    private static final int CHUNK_BYTES = 64 * 1024;
+    /**
+     * Bytes probed for a NUL byte
+     */
+    private static final int BINARY_PROBE = 8000;
+    /**
+     * Magic bytes of binary formats: ELF, Mach-O, class, PE, zip, gzip, bzip2, xz, 7z, PNG, GIF, JPEG, PDF, wasm
+     */
+    private static final byte[][] MAGIC = {
+            {0x7F, 'E', 'L', 'F'},
+            {(byte) 0xCF, (byte) 0xFA, (byte) 0xED, (byte) 0xFE},
+            {(byte) 0xCE, (byte) 0xFA, (byte) 0xED, (byte) 0xFE},
+            {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE},
+            {'M', 'Z'},
+            {'P', 'K', 0x03, 0x04},
+            {0x1F, (byte) 0x8B},
+            {'B', 'Z', 'h'},
+            {(byte) 0xFD, '7', 'z', 'X', 'Z', 0x00},
+            {'7', 'z', (byte) 0xBC, (byte) 0xAF, 0x27, 0x1C},
+            {(byte) 0x89, 'P', 'N', 'G'},
+            {'G', 'I', 'F', '8'},
+            {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+            {'%', 'P', 'D', 'F'},
+            {0x00, 'a', 's', 'm'},
+    };
+    /**
+     * Directory names not descended into
+     */
+    public static final Set<String> IGNORED = new HashSet<String>(Arrays.asList(".git", ".svn", ".hg"));
+    /**
+     * ScanCode timestamp format
+     */
+    private static final String TIMESTAMP = "yyyy-MM-dd'T'HHmmss.SSS";
+
+    /**
+     * Record sink
+     */
+    public interface Sink {
+        /**
+         * Accept record, called from several threads
+         *
+         * @param file file or directory record
+         * @throws IOException IOException
+         */
+        void accept(ScanCodeFile file) throws IOException;
+    }
+
+    /**
+     * Root
+     */
+    private final Path root;
+    /**
+     * Root name, the first segment of every record path as ScanCode writes it
+     */
+    private final String rootName;
+    /**
+     * Bytes read per file
+     */
+    private final int headerBytes;
+    /**
+     * Sink
+     */
+    private final Sink sink;
+    /**
+     * Matcher for licenses outside comment headers
+     */
+    private final LicenseMatcher matcher = LicenseMatcher.getShared();
+    /**
+     * Read buffer per worker
+     */
+    private final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(headerBytes);
+        }
+    };
+    /**
+     * Result cache, null if files are always analysed
+     */
+    private ResultCache cache;
+    /**
+     * Sha1 digest per worker
+     */
+    private final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+    /**
+     * Buffer per worker for hashing past the header
+     */
+    private final ThreadLocal<ByteBuffer> chunks = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(CHUNK_BYTES);
+        }
+    };
+    /**
+     * Files scanned
+     */
+    private final AtomicLong files = new AtomicLong();
+    /**
+     * Directories scanned
+     */
+    private final AtomicLong directories = new AtomicLong();
+    /**
+     * Binaries skipped
+     */
+    private final AtomicLong binaries = new AtomicLong();
+    /**
+     * Bytes read
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    /**
+     * Files or directories that could not be read
+     */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Scan the tree
+     *
+     * @param pool pool
+     * @throws IOException IOException of the sink
+     */
+    public void scan(ForkJoinPool pool) throws IOException {
+        try {
+            pool.invoke(new DirectoryTask(root));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Set result cache; text files are then hashed in full and analysed only if their sha1 is unknown
+     *
+     * @param cache cache or null
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Get files scanned
+     *
+     * @return count
+     */
+    public long getFiles() {
+        return files.get();
+    }
+
+    /**
+     * Get directories scanned
+     *
+     * @return count
+     */
+    public long getDirectories() {
+        return directories.get();
+    }
+
+    /**
+     * Get binaries skipped
+     *
+     * @return count
+     */
+    public long getBinaries() {
+        return binaries.get();
+    }
+
+    /**
+     * Get bytes read
+     *
+     * @return bytes
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Get files or directories that could not be read
+     *
+     * @return count
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Scan a tree and write the ScanCode report
+     * <p>
+     * Arguments: [--threads n] [--header-bytes n] [--output report.json] [--baseline scancode.json]
+     * [--cache directory] [--seed scancode.json]... [root]
+     *
+     * @param args arguments
+     * @throws IOException IOException
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int headerBytes = HEADER_BYTES;
+        Path output = null;
+        Path baselineFile = null;
+        Path cacheDirectory = null;
+        List<Path> seeds = new ArrayList<Path>();
+        Path root = Paths.get(".");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--header-bytes") && i + 1 < args.length) {
+                headerBytes = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else if (args[i].equals("--baseline") && i + 1 < args.length) {
+                baselineFile = Paths.get(args[++i]);
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDirectory = Paths.get(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seeds.add(Paths.get(args[++i]));
+            } else {
+                root = Paths.get(args[i]);
+            }
+        }
+        final ScanCodeBaseline baseline = baselineFile != null ? ScanCodeBaseline.load(baselineFile) : null;
+        Writer out = output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        final ScanCodeWriter writer = new ScanCodeWriter(out);
+        TreeScanner scanner = new TreeScanner(root, headerBytes, new Sink() {
+            @Override
+            public void accept(ScanCodeFile file) throws IOException {
+                writer.write(file);
+                if (baseline != null) {
+                    baseline.compare(file);
+                }
+            }
+        });
+        ResultCache cache = cacheDirectory != null ? ResultCache.open(cacheDirectory, ResultCache.MEMORY_ENTRIES) : null;
+        if (cache != null) {
+            for (Path seed : seeds) {
+                System.err.println(String.format("%d results imported from %s", cache.importScanCode(seed), seed));
+            }
+            scanner.setCache(cache);
+        }
+        ScanCodeHeader header = new ScanCodeHeader();
+        header.toolName = "ts-deepscan-tree-scanner";
+        header.toolVersion = TreeScanner.class.getPackage().getImplementationVersion();
+        header.startTimestamp = new SimpleDateFormat(TIMESTAMP, Locale.ROOT).format(new Date());
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            scanner.scan(pool);
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        header.endTimestamp = new SimpleDateFormat(TIMESTAMP, Locale.ROOT).format(new Date());
+        header.filesCount = (int) scanner.getFiles();
+        writer.finish(header);
+        writer.close();
+        System.err.println(String.format("%d files, %d directories, %d binaries, %d errors, %.1f MB read in %.2f s: %.0f files/s on %d threads",
+                scanner.getFiles(), scanner.getDirectories(), scanner.getBinaries(), scanner.getErrors(),
+                scanner.getBytesRead() / 1048576.0, seconds, scanner.getFiles() / seconds, threads));
+        if (baseline != null) {
+            System.err.println(baseline);
+        }
+        if (cache != null) {
+            System.err.println(cache);
+            cache.close();
+        }
+    }
+
+    /**
+     * Scan file and hand its record to the sink
+     *
+     * @param file file
+     * @return file size
+     */
+    private long scanFile(Path file) {
+        ScanCodeFile record = new ScanCodeFile();
+        record.path = toScanPath(file);
+        record.type = "file";
+        ByteBuffer buffer = buffers.get();
+        buffer.clear();
+        boolean binary = false;
+        String sha1 = null;
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                record.size = channel.size();
+                // probe first so binaries cost one small read
+                buffer.limit(Math.min(buffer.capacity(), BINARY_PROBE));
+                fill(channel, buffer);
+                buffer.flip();
+                binary = isBinary(buffer);
+                if (!binary && buffer.limit() == BINARY_PROBE) {
+                    buffer.position(buffer.limit());
+                    buffer.limit(buffer.capacity());
+                    fill(channel, buffer);
+                    buffer.flip();
+                }
+                if (!binary && cache != null) {
+                    sha1 = digest(channel, buffer);
+                    record.sha1 = sha1;
+                }
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            record.scanErrors.add(e.toString());
+            errors.incrementAndGet();
+            buffer.clear();
+            buffer.limit(0);
+        }
+        bytesRead.addAndGet(buffer.remaining());
+        files.incrementAndGet();
+        if (binary) {
+            record.binary = true;
+            binaries.incrementAndGet();
+        } else if (!applyCached(record)) {
+            if (HeaderExtractor.EXTENSIONS.contains(getExtension(file))) {
+                addHeaderRecords(record, HeaderExtractor.extract(buffer.duplicate()));
+            } else {
+                addTextLicenses(record, StandardCharsets.UTF_8.decode(buffer.duplicate()));
+            }
+            storeCached(record);
+        }
+        emit(record);
+        return record.size;
+    }
+
+    /**
+     * Compute sha1 of the whole file, the header already read and the rest of the channel
+     *
+     * @param channel channel
+     * @param header  header bytes, left unchanged
+     * @return hex sha1
+     * @throws IOException IOException
+     */
+    private String digest(FileChannel channel, ByteBuffer header) throws IOException {
+        MessageDigest digest = digests.get();
+        digest.reset();
+        digest.update(header.duplicate());
+        long position = header.limit();
+        if (position == header.capacity()) {
+            ByteBuffer chunk = chunks.get();
+            int read;
+            do {
+                chunk.clear();
+                read = channel.read(chunk, position);
+                if (read > 0) {
+                    chunk.flip();
+                    digest.update(chunk);
+                    position += read;
+                    bytesRead.addAndGet(read);
+                }
+            } while (read >= 0);
+        }
+        return ResultCache.toHex(digest.digest());
+    }
+
+    /**
+     * Apply cached result of the record's sha1
+     *
+     * @param record record
+     * @return found
+     */
+    private boolean applyCached(ScanCodeFile record) {
+        if (record.sha1 == null) {
+            return false;
+        }
+        try {
+            ScanCodeFile cached = cache.get(record.sha1);
+            if (cached != null) {
+                ResultCache.copyResult(cached, record);
+                return true;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Store result of the record's sha1
+     *
+     * @param record record
+     */
+    private void storeCached(ScanCodeFile record) {
+        if (record.sha1 == null) {
+            return;
+        }
+        try {
+            cache.put(record.sha1, record);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Read until buffer is full or the file ends
+     *
+     * @param channel channel
+     * @param buffer  buffer
+     * @throws IOException IOException
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // fill up to the limit
+        }
+    }
+
+    /**
+     * Add comment header records
+     *
+     * @param record  record
+     * @param headers header records
+     */
+    private void addHeaderRecords(ScanCodeFile record, List<HeaderRecord> headers) {
+        for (HeaderRecord header : headers) {
+            switch (header.getType()) {
+                case AUTHOR:
+                    record.authors.add(new ScanCodeStatement(header.getValue(), header.getLine(), header.getLine()));
+                    break;
+                case HOLDER:
+                    record.holders.add(new ScanCodeStatement(header.getValue(), header.getLine(), header.getLine()));
+                    break;
+                case COPYRIGHT:
+                    record.copyrights.add(new ScanCodeStatement(header.getValue(), header.getLine(), header.getLine()));
+                    break;
+                case LICENSE:
+                    addLicense(record, matcher.resolve(header.getValue(), null), header.getValue(), header.getLine());
+                    break;
+                default:
+                    // years are part of the copyright statement
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Add licenses named anywhere in text
+     *
+     * @param record record
+     * @param text   text
+     */
+    private void addTextLicenses(ScanCodeFile record, CharSequence text) {
+        int line = 1;
+        int position = 0;
+        for (LicenseMatch match : matcher.find(text)) {
+            for (; position < match.getStart(); position++) {
+                if (text.charAt(position) == '\n') {
+                    line++;
+                }
+            }
+            addLicense(record, match.getLicense(), text.subSequence(match.getStart(), match.getEnd()).toString(), line);
+        }
+    }
+
+    /**
+     * Add license, unknown if it could not be resolved
+     *
+     * @param record record
+     * @param id     SPDX id or null
+     * @param text   matched text
+     * @param line   line
+     */
+    private static void addLicense(ScanCodeFile record, String id, String text, int line) {
+        ScanCodeLicense license = new ScanCodeLicense();
+        license.key = id != null ? id.toLowerCase(Locale.ROOT) : "unknown";
+        license.score = id != null ? 100 : 0;
+        license.shortName = text;
+        license.spdxLicenseKey = id;
+        license.startLine = line;
+        license.endLine = line;
+        license.ruleLicenseExpression = license.key;
+        license.matcher = "header";
+        license.matchedLength = text.length();
+        license.matchCoverage = 100;
+        record.licenses.add(license);
+        if (!record.licenseExpressions.contains(license.key)) {
+            record.licenseExpressions.add(license.key);
+        }
+    }
+
+    /**
+     * Hand record to the sink
+     *
+     * @param record record
+     */
+    private void emit(ScanCodeFile record) {
+        try {
+            sink.accept(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Is buffer content binary
+     *
+     * @param buffer buffer
+     * @return boolean
+     */
+    static boolean isBinary(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        for (byte[] magic : MAGIC) {
+            if (limit >= magic.length) {
+                int i = 0;
+                while (i < magic.length && buffer.get(i) == magic[i]) {
+                    i++;
+                }
+                if (i == magic.length) {
+                    return true;
+                }
+            }
+        }
+        int probe = Math.min(limit, BINARY_PROBE);
+        for (int i = 0; i < probe; i++) {
+            if (buffer.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get record path: root name and the path relative to root, '/' separated
+     *
+     * @param path path
+     * @return path
+     */
+    private String toScanPath(Path path) {
+        String relative = root.relativize(path).toString().replace('\\', '/');
+        if (relative.isEmpty()) {
+            return rootName;
+        }
+        return rootName.isEmpty() ? relative : rootName + "/" + relative;
+    }
+
+    /**
+     * Get lower case extension
+     *
+     * @param file file
+     * @return extension without dot or empty
+     */
+    private static String getExtension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Directory task, returns files, directories and size below the directory
+     */
+    private final class DirectoryTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Directory
+         */
+        private final Path directory;
+
+        /**
+         * List entries, fork subtasks and emit the directory record once they are done
+         *
+         * @return counts
+         */
+        @Override
+        protected long[] compute() {
+            final List<Path> subdirectories = new ArrayList<Path>();
+            final List<Path> entries = new ArrayList<Path>();
+            ScanCodeFile record = new ScanCodeFile();
+            record.path = toScanPath(directory);
+            record.type = "directory";
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isDirectory()) {
+                            if (!IGNORED.contains(file.getFileName().toString())) {
+                                subdirectories.add(file);
+                            }
+                        } else if (attrs.isRegularFile()) {
+                            entries.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        errors.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                record.scanErrors.add(e.toString());
+                errors.incrementAndGet();
+            }
+            List<RecursiveTask<long[]>> tasks = new ArrayList<RecursiveTask<long[]>>();
+            for (Path subdirectory : subdirectories) {
+                tasks.add(new DirectoryTask(subdirectory));
+            }
+            for (int i = 0; i < entries.size(); i += BATCH) {
+                tasks.add(new FileBatchTask(entries.subList(i, Math.min(entries.size(), i + BATCH))));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (RecursiveTask<long[]> task : tasks) {
+                long[] counts = task.join();
+                record.filesCount += counts[0];
+                record.dirsCount += counts[1];
+                record.sizeCount += counts[2];
+            }
+            record.dirsCount += subdirectories.size();
+            directories.incrementAndGet();
+            emit(record);
+            return new long[]{record.filesCount, record.dirsCount, record.sizeCount};
+        }
+
+        /**
+         * Constructor
+         *
+         * @param directory directory
+         */
+        private DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+    }
+
+    /**
+     * File batch task, returns files, directories and size of the batch
+     */
+    private final class FileBatchTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        /**
+         * Files
+         */
+        private final List<Path> batch;
+
+        /**
+         * Scan files
+         *
+         * @return counts
+         */
+        @Override
+        protected long[] compute() {
+            long size = 0;
+            for (Path file : batch) {
+                size += scanFile(file);
+            }
+            return new long[]{batch.size(), 0, size};
+        }
+
+        /**
+         * Constructor
+         *
+         * @param batch files
+         */
+        private FileBatchTask(List<Path> batch) {
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param root        root directory
+     * @param headerBytes bytes read per file
+     * @param sink        record sink
+     */
+    public TreeScanner(Path root, int headerBytes, Sink sink) {
+        this.root = root.toAbsolutePath().normalize();
+        Path name = this.root.getFileName();
+        this.rootName = name != null ? name.toString() : "";
+        this.headerBytes = headerBytes;
+        this.sink = sink;
+    }
+}